@@ -0,0 +1,230 @@
+package com.wire.qa.picklejar.benchmark;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import io.cucumber.java.en.Given;
+
+/**
+ * Writes a synthetic suite of feature files and compiled step classes with no-op step methods into a directory which
+ * can be added to the classpath. The content only depends on the settings and the seed, so the same settings always
+ * produce the same suite.
+ * <p>
+ * The regexes have the shapes which are common in real suites: a literal text with one or two groups at different
+ * positions. Every scenario has the given number of steps which are spread randomly over all step definitions. Every
+ * scenario gets tags from a skewed distribution: @tag0 is the most frequent tag, the last tag the least frequent one.
+ */
+public class SuiteGenerator {
+
+    public static final String PACKAGE_NAME = "com.wire.qa.picklejar.benchmark.suite";
+
+    private int features = 100;
+    private int scenariosPerFeature = 10;
+    private double outlineRatio = 0.2;
+    private int outlineWidth = 10;
+    private int stepsPerScenario = 5;
+    private int stepDefinitions = 200;
+    private int stepClasses = 10;
+    private int tags = 20;
+    private int tagsPerScenario = 2;
+    private long seed = 42;
+
+    public SuiteGenerator features(int features) {
+        this.features = features;
+        return this;
+    }
+
+    public SuiteGenerator scenariosPerFeature(int scenariosPerFeature) {
+        this.scenariosPerFeature = scenariosPerFeature;
+        return this;
+    }
+
+    // Share of the scenarios of a feature which are Scenario Outlines
+    public SuiteGenerator outlineRatio(double outlineRatio) {
+        this.outlineRatio = outlineRatio;
+        return this;
+    }
+
+    // Number of example rows of every Scenario Outline
+    public SuiteGenerator outlineWidth(int outlineWidth) {
+        this.outlineWidth = outlineWidth;
+        return this;
+    }
+
+    public SuiteGenerator stepsPerScenario(int stepsPerScenario) {
+        this.stepsPerScenario = stepsPerScenario;
+        return this;
+    }
+
+    public SuiteGenerator stepDefinitions(int stepDefinitions) {
+        this.stepDefinitions = stepDefinitions;
+        return this;
+    }
+
+    public SuiteGenerator stepClasses(int stepClasses) {
+        this.stepClasses = stepClasses;
+        return this;
+    }
+
+    public SuiteGenerator tags(int tags) {
+        this.tags = tags;
+        return this;
+    }
+
+    public SuiteGenerator tagsPerScenario(int tagsPerScenario) {
+        this.tagsPerScenario = tagsPerScenario;
+        return this;
+    }
+
+    public SuiteGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Returns the number of scenarios (every example row counts as scenario) the generated suite contains.
+     */
+    public long getScenarioCount() {
+        int outlines = getOutlinesPerFeature();
+        return (long) features * (scenariosPerFeature - outlines + (long) outlines * outlineWidth);
+    }
+
+    /**
+     * Writes the feature files and the compiled step classes into the given directory. Both are located in the
+     * package {@link #PACKAGE_NAME}.
+     */
+    public void generate(Path directory) throws IOException {
+        Path packageDirectory = Files.createDirectories(directory.resolve(PACKAGE_NAME.replace('.', '/')));
+        Random random = new Random(seed);
+        int outlines = getOutlinesPerFeature();
+        for (int feature = 0; feature < features; feature++) {
+            List<String> lines = new ArrayList<>();
+            lines.add("@feature" + feature);
+            lines.add("Feature: Synthetic " + feature);
+            for (int scenario = 0; scenario < scenariosPerFeature; scenario++) {
+                boolean outline = scenario < outlines;
+                lines.add("");
+                lines.add("  " + getTags(random));
+                lines.add(outline
+                        ? "  Scenario Outline: Outline " + scenario + " with <Value>"
+                        : "  Scenario: Scenario " + scenario);
+                for (int step = 0; step < stepsPerScenario; step++) {
+                    // The first step of an outline uses the placeholder, so it needs a definition which accepts any text
+                    if (outline && step == 0) {
+                        int definition = 4 * random.nextInt((stepDefinitions + 2) / 4) + 1;
+                        lines.add("    Given " + stepText(definition).replace("Bob", "<Value>"));
+                    } else {
+                        lines.add("    Given " + stepText(random.nextInt(stepDefinitions)));
+                    }
+                }
+                if (outline) {
+                    lines.add("    Examples:");
+                    lines.add("      | Value |");
+                    for (int row = 0; row < outlineWidth; row++) {
+                        lines.add("      | Value " + row + " |");
+                    }
+                }
+            }
+            Files.write(packageDirectory.resolve("Synthetic" + feature + ".feature"), lines);
+        }
+
+        List<Path> sources = new ArrayList<>();
+        for (int stepClass = 0; stepClass < stepClasses; stepClass++) {
+            List<String> lines = new ArrayList<>(List.of(
+                    "package " + PACKAGE_NAME + ";",
+                    "public class Synthetic" + stepClass + "Steps {"));
+            for (int definition = stepClass; definition < stepDefinitions; definition += stepClasses) {
+                String literal = regex(definition).replace("\\", "\\\\").replace("\"", "\\\"");
+                lines.add(String.format("    @io.cucumber.java.en.Given(\"%s\")", literal));
+                lines.add(String.format("    public void step%d(%s) {}", definition, parameters(definition)));
+            }
+            lines.add("}");
+            sources.add(Files.write(packageDirectory.resolve("Synthetic" + stepClass + "Steps.java"), lines));
+        }
+        compile(directory, sources);
+    }
+
+    public static String regex(int definition) {
+        switch (definition % 4) {
+            case 0:
+                return String.format("^User %d sends (\\d+) messages? to \"([^\"]*)\"$", definition);
+            case 1:
+                return String.format("^I see conversation %d with (.*)$", definition);
+            case 2:
+                return String.format("^Feature toggle %d is (enabled|disabled)$", definition);
+            default:
+                return String.format("^I wait (\\d+) seconds? for item %d$", definition);
+        }
+    }
+
+    // Returns a step text which is matched by the given step definition
+    public static String stepText(int definition) {
+        switch (definition % 4) {
+            case 0:
+                return String.format("User %d sends 3 messages to \"Alice\"", definition);
+            case 1:
+                return String.format("I see conversation %d with Bob", definition);
+            case 2:
+                return String.format("Feature toggle %d is enabled", definition);
+            default:
+                return String.format("I wait 1 second for item %d", definition);
+        }
+    }
+
+    public static String parameters(int definition) {
+        switch (definition % 4) {
+            case 0:
+                return "int count, String name";
+            case 1:
+            case 2:
+                return "String value";
+            default:
+                return "int seconds";
+        }
+    }
+
+    /**
+     * Compiles the given step classes into the directory.
+     */
+    public static void compile(Path directory, List<Path> sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            String classPath = Paths.get(Given.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+            boolean compiled = compiler.getTask(null, fileManager, null,
+                    Arrays.asList("-d", directory.toString(), "-classpath", classPath), null,
+                    fileManager.getJavaFileObjectsFromPaths(sources)).call();
+            if (!compiled) {
+                throw new IllegalStateException("Could not compile " + sources);
+            }
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int getOutlinesPerFeature() {
+        return (int) Math.round(scenariosPerFeature * outlineRatio);
+    }
+
+    private String getTags(Random random) {
+        List<String> scenarioTags = new ArrayList<>();
+        while (scenarioTags.size() < Math.min(tagsPerScenario, tags)) {
+            double value = random.nextDouble();
+            String tag = "@tag" + (int) (tags * value * value);
+            if (!scenarioTags.contains(tag)) {
+                scenarioTags.add(tag);
+            }
+        }
+        return String.join(" ", scenarioTags);
+    }
+}
@@ -0,0 +1,95 @@
+package com.wire.qa.picklejar.engine;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.platform.commons.util.ReflectionUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Invocation of step methods with already converted parameters through reflection compared to the
+ * {@link MethodInvoker} which the engine uses. Both are measured after warm up, so the accessor classes which
+ * reflection generates for every method are not part of the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MethodInvokerBenchmark {
+
+    private static final int METHODS = 8;
+
+    private final ExampleSteps steps = new ExampleSteps();
+    private final Object[] parameters = {3, "Alice"};
+    // Several step methods like in a real scenario, so the call sites are not monomorphic
+    private final Method[] methods = new Method[METHODS];
+    private final MethodInvoker[] invokers = new MethodInvoker[METHODS];
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        for (int i = 0; i < METHODS; i++) {
+            methods[i] = ExampleSteps.class.getMethod("step" + i, int.class, String.class);
+            invokers[i] = MethodInvoker.of(methods[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(METHODS)
+    public void reflection(Blackhole blackhole) {
+        for (Method method : methods) {
+            blackhole.consume(ReflectionUtils.invokeMethod(method, steps, parameters));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(METHODS)
+    public void methodHandle(Blackhole blackhole) {
+        for (MethodInvoker invoker : invokers) {
+            blackhole.consume(invoker.invoke(steps, parameters));
+        }
+    }
+
+    public static class ExampleSteps {
+
+        private int messages = 0;
+
+        public void step0(int count, String name) {
+            messages += count;
+        }
+
+        public void step1(int count, String name) {
+            messages += name.length();
+        }
+
+        public void step2(int count, String name) {
+            messages -= count;
+        }
+
+        public void step3(int count, String name) {
+            messages -= name.length();
+        }
+
+        public void step4(int count, String name) {
+            messages += count * 2;
+        }
+
+        public void step5(int count, String name) {
+            messages += name.length() * 2;
+        }
+
+        public void step6(int count, String name) {
+            messages ^= count;
+        }
+
+        public void step7(int count, String name) {
+            messages ^= name.length();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.wire.qa.picklejar.benchmark.SuiteGenerator;
+import com.wire.qa.picklejar.engine.PicklejarConfiguration;
+import org.junit.platform.engine.ConfigurationParameters;
+
+/**
+ * Compiles a step class with the given number of step definitions for the benchmarks. The regexes are the ones of the
+ * {@link SuiteGenerator}.
+ */
+final class BenchmarkSteps {
+
+    static final String PACKAGE_NAME = "com.wire.qa.picklejar.engine.benchmark.steps";
+    // Keeps the configured level, loggers are only weakly referenced by the LogManager
+    private static final Logger PICKLEJAR_LOGGER = Logger.getLogger("com.wire.qa.picklejar");
+
+    private BenchmarkSteps() {
+    }
+
+    /**
+     * Compiles the step class into the given directory and returns a classloader for it which has to be set as
+     * context classloader before the {@link MethodCache} is created.
+     */
+    static URLClassLoader compile(Path directory, int definitions) throws Exception {
+        Path packageDirectory = Files.createDirectories(directory.resolve(PACKAGE_NAME.replace('.', '/')));
+        List<String> lines = new ArrayList<>(List.of(
+                "package " + PACKAGE_NAME + ";",
+                "public class GeneratedSteps {"));
+        for (int i = 0; i < definitions; i++) {
+            String literal = SuiteGenerator.regex(i).replace("\\", "\\\\").replace("\"", "\\\"");
+            lines.add(String.format("    @io.cucumber.java.en.Given(\"%s\")", literal));
+            lines.add(String.format("    public void step%d(%s) {}", i, SuiteGenerator.parameters(i)));
+        }
+        lines.add("}");
+        Path source = Files.write(packageDirectory.resolve("GeneratedSteps.java"), lines);
+
+        SuiteGenerator.compile(directory, List.of(source));
+        return new URLClassLoader(new URL[]{directory.toUri().toURL()}, BenchmarkSteps.class.getClassLoader());
+    }
+
+    static PicklejarConfiguration configuration(Map<String, String> parameters) {
+        return new PicklejarConfiguration(new ConfigurationParameters() {
+            @Override
+            public Optional<String> get(String key) {
+                return Optional.ofNullable(parameters.get(key));
+            }
+
+            @Override
+            public Optional<Boolean> getBoolean(String key) {
+                return get(key).map(Boolean::parseBoolean);
+            }
+
+            @Override
+            public int size() {
+                return parameters.size();
+            }
+        });
+    }
+
+    // The engine logs every discovered feature and the creation of every MethodCache on level INFO
+    static void disableLogging() {
+        PICKLEJAR_LOGGER.setLevel(Level.WARNING);
+    }
+}
@@ -0,0 +1,62 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.wire.qa.picklejar.benchmark.SuiteGenerator;
+import gherkin.AstBuilder;
+import gherkin.Parser;
+import gherkin.ast.Feature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parsing of one feature file with the gherkin parser, the parser is reused like in {@link FeatureSelectorResolver}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FeatureParsingBenchmark {
+
+    // Every second scenario is an outline with 5 examples
+    @Param({"10", "100"})
+    private int scenarios;
+
+    private String content;
+    private Parser<Feature> parser;
+
+    @Setup
+    public void setUp() {
+        List<String> lines = new ArrayList<>(List.of("@regression", "Feature: Parsing", ""));
+        for (int i = 0; i < scenarios; i++) {
+            boolean outline = i % 2 == 1;
+            lines.add("  @smoke @scenario" + i);
+            lines.add(outline ? "  Scenario Outline: Outline " + i + " with <Name>" : "  Scenario: Scenario " + i);
+            for (int step = 0; step < 5; step++) {
+                lines.add("    Given " + SuiteGenerator.stepText(i + step).replace("Bob", outline ? "<Name>" : "Bob"));
+            }
+            if (outline) {
+                lines.add("    Examples:");
+                lines.add("      | Name |");
+                for (int row = 0; row < 5; row++) {
+                    lines.add("      | Name" + row + " |");
+                }
+            }
+            lines.add("");
+        }
+        content = String.join("\n", lines);
+        parser = new Parser<>(new AstBuilder());
+    }
+
+    @Benchmark
+    public Feature parse() {
+        return parser.parse(content);
+    }
+}
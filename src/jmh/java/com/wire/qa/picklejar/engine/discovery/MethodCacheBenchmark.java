@@ -0,0 +1,53 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Creation of the {@link MethodCache} by scanning the steps package (the step registry is disabled).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MethodCacheBenchmark {
+
+    @Param({"100", "1000"})
+    private int definitions;
+
+    @Param({"false", "true"})
+    private boolean automaton;
+
+    private ClassLoader originalClassLoader;
+    private URLClassLoader classLoader;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkSteps.disableLogging();
+        classLoader = BenchmarkSteps.compile(Files.createTempDirectory("picklejar-benchmark"), definitions);
+        originalClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(classLoader);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Thread.currentThread().setContextClassLoader(originalClassLoader);
+        classLoader.close();
+    }
+
+    @Benchmark
+    public MethodCache create() throws Exception {
+        return new MethodCache(List.of(BenchmarkSteps.PACKAGE_NAME), false, automaton);
+    }
+}
@@ -0,0 +1,69 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.wire.qa.picklejar.engine.PicklejarConfiguration;
+import org.junit.platform.engine.UniqueId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Replacing the placeholders of one step of a Scenario Outline with the values of an example row. Discovery parses
+ * the template once per Examples block and renders it for every row, replaceExampleOccurences() parses it on every
+ * call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OutlineBenchmark {
+
+    @Param({"1", "5"})
+    private int columns;
+
+    private String text;
+    private Map<String, String> exampleParams;
+    private String[] values;
+    private OutlineTemplate template;
+    private ScenarioSelectorResolver resolver;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("User <Name0> sends");
+        exampleParams = new LinkedHashMap<>();
+        List<String> columnNames = new ArrayList<>();
+        for (int i = 0; i < columns; i++) {
+            if (i > 0) {
+                builder.append(" and <Name").append(i).append(">");
+            }
+            columnNames.add("Name" + i);
+            exampleParams.put("Name" + i, "Value" + i);
+        }
+        builder.append(" a message to \"<Name0>\"");
+        text = builder.toString();
+        values = exampleParams.values().toArray(new String[0]);
+        template = OutlineTemplate.parse(text, columnNames);
+        PicklejarConfiguration configuration = BenchmarkSteps.configuration(Map.of());
+        resolver = new ScenarioSelectorResolver(UniqueId.forEngine("picklejar-engine"), configuration, null,
+                new StepResolutions(), new TestTags(), DiscoveryStatistics.DISABLED);
+    }
+
+    @Benchmark
+    public String replaceExampleOccurences() {
+        return resolver.replaceExampleOccurences(text, exampleParams);
+    }
+
+    @Benchmark
+    public String renderTemplate() {
+        return template.render(values);
+    }
+}
@@ -0,0 +1,52 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Conversion of a captured text into a step parameter with a conversion which was resolved in advance, like the
+ * {@link MethodCache} does once per step method.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParameterConversionBenchmark {
+
+    private static final Map<String, Object[]> TYPES = Map.of(
+            "String", new Object[]{String.class, "Alice"},
+            "int", new Object[]{int.class, "123"},
+            "double", new Object[]{double.class, "18.1233"},
+            "boolean", new Object[]{boolean.class, "true"},
+            "enum", new Object[]{TimeUnit.class, "SECONDS"},
+            "UUID", new Object[]{UUID.class, "123e4567-e89b-12d3-a456-426614174000"},
+            "Duration", new Object[]{Duration.class, "PT5S"});
+
+    @Param({"String", "int", "double", "boolean", "enum", "UUID", "Duration"})
+    private String type;
+
+    private ParameterConverters.Conversion conversion;
+    private String value;
+
+    @Setup
+    public void setUp() {
+        conversion = new ParameterConverters(Collections.emptyList()).resolve((Class<?>) TYPES.get(type)[0]);
+        value = (String) TYPES.get(type)[1];
+    }
+
+    @Benchmark
+    public Object convert() throws Exception {
+        return conversion.convert(value);
+    }
+}
@@ -0,0 +1,86 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.wire.qa.picklejar.benchmark.SuiteGenerator;
+import com.wire.qa.picklejar.engine.PicklejarConfiguration;
+import com.wire.qa.picklejar.engine.descriptor.FeatureDescriptor;
+import com.wire.qa.picklejar.engine.descriptor.ScenarioDescriptor;
+import gherkin.AstBuilder;
+import gherkin.Parser;
+import gherkin.ast.Feature;
+import gherkin.ast.ScenarioDefinition;
+import org.junit.platform.engine.UniqueId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Resolving the steps of a scenario with 20 distinct step texts to their step methods, including the conversion of
+ * the parameters. Every invocation starts with empty {@link StepResolutions}, so every step text is matched.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StepMatchingBenchmark {
+
+    private static final int STEPS = 20;
+
+    @Param({"20", "100", "1000"})
+    private int definitions;
+
+    @Param({"false", "true"})
+    private boolean automaton;
+
+    private ClassLoader originalClassLoader;
+    private URLClassLoader classLoader;
+    private PicklejarConfiguration configuration;
+    private MethodCache methodCache;
+    private ScenarioDefinition scenario;
+    private FeatureDescriptor featureDescriptor;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkSteps.disableLogging();
+        classLoader = BenchmarkSteps.compile(Files.createTempDirectory("picklejar-benchmark"), definitions);
+        originalClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(classLoader);
+        methodCache = new MethodCache(List.of(BenchmarkSteps.PACKAGE_NAME), false, automaton);
+        configuration = BenchmarkSteps.configuration(Collections.emptyMap());
+
+        // The steps are spread over all step definitions and use every regex shape
+        List<String> lines = new ArrayList<>(List.of("Feature: Matching", "  Scenario: Matching"));
+        for (int i = 0; i < STEPS; i++) {
+            lines.add("    Given " + SuiteGenerator.stepText(i * definitions / STEPS / 4 * 4 + i % 4));
+        }
+        Feature feature = new Parser<>(new AstBuilder()).parse(String.join("\n", lines));
+        scenario = feature.getScenarioDefinitions().get(0);
+        featureDescriptor = new FeatureDescriptor(UniqueId.forEngine("picklejar-engine"), feature.getName(),
+                Paths.get("Matching.feature"), "");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Thread.currentThread().setContextClassLoader(originalClassLoader);
+        classLoader.close();
+    }
+
+    @Benchmark
+    public List<ScenarioDescriptor> resolveSteps() {
+        ScenarioSelectorResolver resolver = new ScenarioSelectorResolver(featureDescriptor.getUniqueId(),
+                configuration, methodCache, new StepResolutions(), new TestTags(), DiscoveryStatistics.DISABLED);
+        return resolver.discover(scenario, featureDescriptor);
+    }
+}
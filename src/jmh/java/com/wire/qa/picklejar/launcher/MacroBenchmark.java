@@ -0,0 +1,98 @@
+package com.wire.qa.picklejar.launcher;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wire.qa.picklejar.benchmark.SuiteGenerator;
+
+/**
+ * Runs discovery and execution of a synthetic suite with no-op steps through the {@link PicklejarLauncher} and
+ * reports wall time, heap peak and GC time of the run. The suite is configured with the system properties
+ * picklejar.benchmark.* (see README) and generated into a temporary directory before the measurement starts.
+ * <p>
+ * Unlike the JMH benchmarks this is a single run in a fresh JVM, so it includes class loading and JIT warm up like a
+ * real test run does.
+ */
+public class MacroBenchmark {
+
+    private static final String PREFIX = "picklejar.benchmark.";
+    // Keeps the configured level, loggers are only weakly referenced by the LogManager
+    private static final Logger PICKLEJAR_LOGGER = Logger.getLogger("com.wire.qa.picklejar");
+
+    public static void main(String[] args) throws Exception {
+        SuiteGenerator generator = new SuiteGenerator()
+                .features(Integer.getInteger(PREFIX + "features", 1_000))
+                .scenariosPerFeature(Integer.getInteger(PREFIX + "scenarios", 20))
+                .outlineRatio(Double.parseDouble(System.getProperty(PREFIX + "outlineRatio", "0.25")))
+                .outlineWidth(Integer.getInteger(PREFIX + "outlineWidth", 16))
+                .stepsPerScenario(Integer.getInteger(PREFIX + "steps", 5))
+                .stepDefinitions(Integer.getInteger(PREFIX + "stepDefinitions", 500))
+                .stepClasses(Integer.getInteger(PREFIX + "stepClasses", 20))
+                .tags(Integer.getInteger(PREFIX + "tags", 50))
+                .tagsPerScenario(Integer.getInteger(PREFIX + "tagsPerScenario", 3))
+                .seed(Long.getLong(PREFIX + "seed", 42));
+        Path results = Paths.get(System.getProperty(PREFIX + "results", "build/results/macro/results.json"));
+
+        Path directory = Files.createTempDirectory("picklejar-benchmark");
+        generator.generate(directory);
+        System.out.printf("Generated %d scenarios into %s%n", generator.getScenarioCount(), directory);
+
+        System.setProperty("com.wire.qa.picklejar.steps.packages", SuiteGenerator.PACKAGE_NAME);
+        System.setProperty("com.wire.qa.picklejar.features.package", SuiteGenerator.PACKAGE_NAME);
+        // Logging every scenario would measure the console instead of the engine
+        PICKLEJAR_LOGGER.setLevel(Level.WARNING);
+        Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[]{directory.toUri().toURL()},
+                MacroBenchmark.class.getClassLoader()));
+
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans();
+        heapPools.removeIf(pool -> pool.getType() != MemoryType.HEAP);
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        long gcMillisBefore = gcMillis();
+        long gcCountBefore = gcCount();
+
+        long start = System.nanoTime();
+        long failed = PicklejarLauncher.run();
+        long wallMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // The sum of the pool peaks is an upper bound because the pools do not peak at the same time
+        long heapPeak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("scenarios", generator.getScenarioCount());
+        result.put("failed", failed);
+        result.put("wallMillis", wallMillis);
+        result.put("heapPeakMegabytes", heapPeak / (1024 * 1024));
+        result.put("gcMillis", gcMillis() - gcMillisBefore);
+        result.put("gcCount", gcCount() - gcCountBefore);
+        Files.createDirectories(results.toAbsolutePath().getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(results.toFile(), result);
+        System.out.printf("Wall time: %d ms, heap peak: %d MB, GC: %d ms in %d collections (written to %s)%n",
+                wallMillis, heapPeak / (1024 * 1024), result.get("gcMillis"), result.get("gcCount"), results);
+
+        // See PicklejarLauncher.main()
+        System.exit(failed > 0 ? 1 : 0);
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+}
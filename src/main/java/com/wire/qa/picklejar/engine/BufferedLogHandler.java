@@ -0,0 +1,184 @@
+package com.wire.qa.picklejar.engine;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Collects the log records of a scenario in a buffer of the executing thread and hands them over to a single writer
+ * thread when the scenario is finished. The writer publishes them to the target handler in one go, so the output of
+ * parallel scenarios does not interleave and the scenario threads never wait for the console.
+ * <p>
+ * Records which are logged outside of a scenario (or by other threads) are handed over to the writer one by one.
+ */
+final class BufferedLogHandler extends Handler {
+
+    enum OverflowPolicy {
+        // Hands the records over to the writer early and continues with an empty buffer
+        FLUSH,
+        // Keeps only the newest records and reports the number of dropped records when the scenario is finished
+        DROP_OLDEST
+    }
+
+    // Only needs to cover short bursts, the scenario threads wait if the writer falls behind
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private final Handler target;
+    private final int bufferSize;
+    private final OverflowPolicy overflowPolicy;
+    private final ThreadLocal<Buffer> buffers = new ThreadLocal<>();
+    private final BlockingQueue<Batch> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+    private volatile boolean closed = false;
+
+    BufferedLogHandler(Handler target, int bufferSize, OverflowPolicy overflowPolicy) {
+        this.target = target;
+        this.bufferSize = bufferSize;
+        this.overflowPolicy = overflowPolicy;
+        this.writer = new Thread(this::write, "picklejar-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    void startBuffering() {
+        buffers.set(new Buffer());
+    }
+
+    void finishBuffering() {
+        Buffer buffer = buffers.get();
+        if (buffer != null) {
+            buffers.remove();
+            if (buffer.dropped > 0) {
+                LogRecord record = new LogRecord(Level.WARNING,
+                        String.format("[Execution] Dropped %d log record(s) of the scenario", buffer.dropped));
+                record.setLoggerName(BufferedLogHandler.class.getName());
+                buffer.records.addFirst(record);
+            }
+            enqueue(new Batch(new ArrayList<>(buffer.records), null));
+        }
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        // Records are filtered here already to keep them out of the buffers
+        if (!target.isLoggable(record)) {
+            return;
+        }
+        Buffer buffer = closed ? null : buffers.get();
+        if (buffer == null) {
+            enqueue(new Batch(Collections.singletonList(record), null));
+            return;
+        }
+        if (buffer.records.size() >= bufferSize) {
+            if (overflowPolicy == OverflowPolicy.FLUSH) {
+                enqueue(new Batch(new ArrayList<>(buffer.records), null));
+                buffer.records.clear();
+            } else {
+                buffer.records.pollFirst();
+                buffer.dropped++;
+            }
+        }
+        buffer.records.addLast(record);
+    }
+
+    /**
+     * Waits until all records which were handed over to the writer are published.
+     */
+    @Override
+    public void flush() {
+        CountDownLatch written = new CountDownLatch(1);
+        enqueue(new Batch(Collections.emptyList(), written));
+        try {
+            written.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops the writer after the records which were already handed over to it are published.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            writer.interrupt();
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            drain();
+        }
+    }
+
+    private void enqueue(Batch batch) {
+        if (closed) {
+            publishDirectly(batch);
+            return;
+        }
+        try {
+            queue.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            publishDirectly(batch);
+            return;
+        }
+        // The handler was closed in the meantime and nobody else takes the batch anymore
+        if (closed) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        Batch batch;
+        while ((batch = queue.poll()) != null) {
+            publishDirectly(batch);
+        }
+    }
+
+    private void publishDirectly(Batch batch) {
+        synchronized (target) {
+            batch.records.forEach(target::publish);
+            target.flush();
+        }
+        if (batch.written != null) {
+            batch.written.countDown();
+        }
+    }
+
+    private void write() {
+        while (!closed) {
+            Batch batch;
+            try {
+                batch = queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            publishDirectly(batch);
+        }
+    }
+
+    private static final class Buffer {
+        private final ArrayDeque<LogRecord> records = new ArrayDeque<>();
+        private int dropped = 0;
+    }
+
+    private static final class Batch {
+        private final List<LogRecord> records;
+        // Set for flush() which waits until everything before it is written
+        private final CountDownLatch written;
+
+        Batch(List<LogRecord> records, CountDownLatch written) {
+            this.records = records;
+            this.written = written;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.wire.qa.picklejar.engine;
+
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import com.wire.qa.picklejar.engine.annotations.NewInstancePerStep;
+import com.wire.qa.picklejar.engine.annotations.Scoped;
+import com.wire.qa.picklejar.engine.exception.MisconfigurationException;
+import org.junit.platform.commons.util.ReflectionUtils;
+
+/**
+ * Creates step classes, lifecycle classes and their dependencies through constructor injection. A constructor
+ * parameter is either the {@link TestContext} of the scenario or a class annotated with {@link Scoped}, which is
+ * created once per scope and shared by everything in that scope.
+ * <p>
+ * The constructors of the step and lifecycle classes and of their dependencies are planned and validated during
+ * discovery, so a step only has to look up or create its instances. If a class has several constructors the one with
+ * the most parameters is used which accepts the TestContext of the scenario (or has no TestContext parameter).
+ * <p>
+ * Step classes without {@link Scoped} live as long as the scenario (or the step with {@link NewInstancePerStep}).
+ * Lifecycle classes without {@link Scoped} are created for every hook call.
+ */
+public final class Injector {
+
+    private static final Logger logger = Logger.getLogger(Injector.class.getName());
+
+    private final Map<Class<?>, Plan> plans = new ConcurrentHashMap<>();
+
+    private Injector() {
+
+    }
+
+    /**
+     * Plans the given classes and their dependencies. Throws a {@link MisconfigurationException} if a class cannot be
+     * created, depends on a class of a narrower scope or if the dependencies are cyclic.
+     */
+    public static Injector create(Collection<Class<?>> classes) {
+        Injector injector = new Injector();
+        for (Class<?> type : classes) {
+            injector.getPlan(type);
+        }
+        return injector;
+    }
+
+    public int getPlannedClassCount() {
+        return plans.size();
+    }
+
+    /**
+     * Returns the instance of the given class in its scope, the scope is looked up from the given instances
+     * outwards. The instance and its dependencies are created on first use.
+     */
+    public Object getInstance(Class<?> type, ScopedInstances instances, TestContext testContext) {
+        Plan plan = getPlan(type);
+        ScopedInstances scopedInstances = instances.find(plan.scope);
+        synchronized (scopedInstances) {
+            Object instance = scopedInstances.get(type);
+            if (instance == null) {
+                instance = create(type, plan, instances, testContext);
+                scopedInstances.put(type, instance);
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Creates a new instance of the given class which is not kept in any scope. Its dependencies are still shared.
+     */
+    public Object newInstance(Class<?> type, ScopedInstances instances, TestContext testContext) {
+        return create(type, getPlan(type), instances, testContext);
+    }
+
+    private Object create(Class<?> type, Plan plan, ScopedInstances instances, TestContext testContext) {
+        for (int i = 0; i < plan.constructors.length; i++) {
+            Class<?>[] parameterTypes = plan.parameterTypes[i];
+            if (accepts(parameterTypes, testContext)) {
+                Object[] arguments = new Object[parameterTypes.length];
+                for (int j = 0; j < parameterTypes.length; j++) {
+                    arguments[j] = TestContext.class.isAssignableFrom(parameterTypes[j])
+                            ? testContext
+                            : getInstance(parameterTypes[j], instances, testContext);
+                }
+                logger.fine(() -> String.format("[Execution] Creating %s scoped %s", plan.scope, type.getName()));
+                return ReflectionUtils.newInstance(plan.constructors[i], arguments);
+            }
+        }
+        throw new MisconfigurationException(String.format("No constructor of %s accepts %s", type.getName(),
+                testContext == null ? "a missing TestContext" : testContext.getClass().getName()));
+    }
+
+    private static boolean accepts(Class<?>[] parameterTypes, TestContext testContext) {
+        for (Class<?> parameterType : parameterTypes) {
+            if (TestContext.class.isAssignableFrom(parameterType) && !parameterType.isInstance(testContext)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Plan getPlan(Class<?> type) {
+        Plan plan = plans.get(type);
+        return plan != null ? plan : createPlan(type, new LinkedHashSet<>());
+    }
+
+    private synchronized Plan createPlan(Class<?> type, LinkedHashSet<Class<?>> path) {
+        Plan plan = plans.get(type);
+        if (plan != null) {
+            return plan;
+        }
+        if (!path.add(type)) {
+            throw new MisconfigurationException(String.format("Cyclic dependency: %s -> %s",
+                    path.stream().map(Class::getName).collect(Collectors.joining(" -> ")), type.getName()));
+        }
+        Scope scope = getScope(type);
+        Constructor<?>[] constructors = Arrays.stream(type.getDeclaredConstructors())
+                .filter(constructor -> !constructor.isSynthetic())
+                .filter(constructor -> Arrays.stream(constructor.getParameterTypes()).allMatch(Injector::isInjectable))
+                .sorted(Comparator.comparingInt((Constructor<?> constructor) -> constructor.getParameterCount()).reversed())
+                .toArray(Constructor<?>[]::new);
+        if (constructors.length == 0) {
+            throw new MisconfigurationException(String.format("%s has no constructor with only %s and @%s parameters",
+                    type.getName(), TestContext.class.getSimpleName(), Scoped.class.getSimpleName()));
+        }
+        Class<?>[][] parameterTypes = new Class<?>[constructors.length][];
+        for (int i = 0; i < constructors.length; i++) {
+            parameterTypes[i] = constructors[i].getParameterTypes();
+            for (Class<?> parameterType : parameterTypes[i]) {
+                if (TestContext.class.isAssignableFrom(parameterType)) {
+                    if (scope.compareTo(Scope.SCENARIO) < 0) {
+                        throw new MisconfigurationException(String.format("%s scoped %s cannot get the %s of a scenario",
+                                scope, type.getName(), TestContext.class.getSimpleName()));
+                    }
+                } else {
+                    Plan dependency = createPlan(parameterType, path);
+                    if (dependency.scope.compareTo(scope) > 0) {
+                        throw new MisconfigurationException(String.format("%s scoped %s cannot depend on %s scoped %s",
+                                scope, type.getName(), dependency.scope, parameterType.getName()));
+                    }
+                }
+            }
+        }
+        path.remove(type);
+        plan = new Plan(scope, constructors, parameterTypes);
+        plans.put(type, plan);
+        return plan;
+    }
+
+    private static boolean isInjectable(Class<?> parameterType) {
+        return TestContext.class.isAssignableFrom(parameterType) || parameterType.isAnnotationPresent(Scoped.class);
+    }
+
+    private static Scope getScope(Class<?> type) {
+        Scoped scoped = type.getAnnotation(Scoped.class);
+        if (scoped != null) {
+            return scoped.value();
+        }
+        return type.isAnnotationPresent(NewInstancePerStep.class) ? Scope.STEP : Scope.SCENARIO;
+    }
+
+    private static final class Plan {
+
+        private final Scope scope;
+        // Most parameters first
+        private final Constructor<?>[] constructors;
+        private final Class<?>[][] parameterTypes;
+
+        Plan(Scope scope, Constructor<?>[] constructors, Class<?>[][] parameterTypes) {
+            this.scope = scope;
+            this.constructors = constructors;
+            this.parameterTypes = parameterTypes;
+        }
+    }
+}
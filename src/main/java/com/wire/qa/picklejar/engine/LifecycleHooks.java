@@ -0,0 +1,169 @@
+package com.wire.qa.picklejar.engine;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import com.wire.qa.picklejar.engine.annotations.AfterEachScenario;
+import com.wire.qa.picklejar.engine.annotations.AfterEachStep;
+import com.wire.qa.picklejar.engine.annotations.BeforeEachScenario;
+import com.wire.qa.picklejar.engine.annotations.BeforeEachStep;
+import com.wire.qa.picklejar.engine.annotations.Scoped;
+import com.wire.qa.picklejar.engine.exception.MisconfigurationException;
+import org.junit.platform.commons.util.AnnotationUtils;
+import org.junit.platform.commons.util.ReflectionUtils;
+
+import static org.junit.platform.commons.util.ReflectionUtils.HierarchyTraversalMode.TOP_DOWN;
+
+/**
+ * Immutable registry of the @BeforeEachScenario, @BeforeEachStep, @AfterEachStep and @AfterEachScenario methods of
+ * all steps packages. It is created once during discovery, so the execution of a step does not have to scan the
+ * classpath for hooks anymore. The signatures of the hooks are validated when the registry is created.
+ */
+public final class LifecycleHooks {
+
+    private static final Logger logger = Logger.getLogger(LifecycleHooks.class.getName());
+
+    public static final LifecycleHooks EMPTY = new LifecycleHooks(Collections.emptyList(), Collections.emptyList(),
+            Collections.emptyList(), Collections.emptyList());
+
+    private final List<Hook> beforeEachScenario;
+    private final List<Hook> beforeEachStep;
+    private final List<Hook> afterEachStep;
+    private final List<Hook> afterEachScenario;
+
+    private LifecycleHooks(List<Hook> beforeEachScenario, List<Hook> beforeEachStep, List<Hook> afterEachStep,
+                           List<Hook> afterEachScenario) {
+        this.beforeEachScenario = beforeEachScenario;
+        this.beforeEachStep = beforeEachStep;
+        this.afterEachStep = afterEachStep;
+        this.afterEachScenario = afterEachScenario;
+    }
+
+    /**
+     * Scans all classes of the given packages for hooks. The hooks of every kind are kept in the order of the
+     * packages, the classes and their methods (superclass methods first).
+     */
+    public static LifecycleHooks scan(List<String> stepsPackages) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (String stepsPackage : stepsPackages) {
+            classes.addAll(ReflectionUtils.findAllClassesInPackage(stepsPackage, type -> true, name -> true));
+        }
+        List<Hook> beforeEachScenario = new ArrayList<>();
+        List<Hook> beforeEachStep = new ArrayList<>();
+        List<Hook> afterEachStep = new ArrayList<>();
+        List<Hook> afterEachScenario = new ArrayList<>();
+        for (Class<?> c : classes) {
+            for (Method method : findHooks(c, BeforeEachScenario.class, 1)) {
+                // Only hooks which create the TestContext of the scenario are executed
+                if (method.getReturnType() == TestContext.class) {
+                    beforeEachScenario.add(new Hook(c, method));
+                } else {
+                    logger.warning(() -> String.format("[Discovery] Hooks: Ignoring @BeforeEachScenario method %s.%s because it does not return %s",
+                            c.getName(), method.getName(), TestContext.class.getSimpleName()));
+                }
+            }
+            findHooks(c, BeforeEachStep.class, 3).forEach(method -> beforeEachStep.add(new Hook(c, method)));
+            findHooks(c, AfterEachStep.class, 3).forEach(method -> afterEachStep.add(new Hook(c, method)));
+            findHooks(c, AfterEachScenario.class, 2).forEach(method -> afterEachScenario.add(new Hook(c, method)));
+        }
+        logger.info(() -> String.format("[Discovery] Hooks: Found %d hook(s) in %d class(es)",
+                beforeEachScenario.size() + beforeEachStep.size() + afterEachStep.size() + afterEachScenario.size(),
+                classes.size()));
+        return new LifecycleHooks(Collections.unmodifiableList(beforeEachScenario),
+                Collections.unmodifiableList(beforeEachStep),
+                Collections.unmodifiableList(afterEachStep),
+                Collections.unmodifiableList(afterEachScenario));
+    }
+
+    private static List<Method> findHooks(Class<?> c, Class<? extends Annotation> annotation, int parameterCount) {
+        List<Method> methods = AnnotationUtils.findAnnotatedMethods(c, annotation, TOP_DOWN);
+        for (Method method : methods) {
+            if (method.getParameterCount() != parameterCount) {
+                throw new MisconfigurationException(String.format("@%s method %s.%s has wrong number of parameters",
+                        annotation.getSimpleName(), c.getName(), method.getName()));
+            }
+        }
+        return methods;
+    }
+
+    public List<Hook> getBeforeEachScenario() {
+        return beforeEachScenario;
+    }
+
+    public List<Hook> getBeforeEachStep() {
+        return beforeEachStep;
+    }
+
+    public List<Hook> getAfterEachStep() {
+        return afterEachStep;
+    }
+
+    public List<Hook> getAfterEachScenario() {
+        return afterEachScenario;
+    }
+
+    /**
+     * Returns the classes which declare the hooks.
+     */
+    public Set<Class<?>> getClasses() {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (List<Hook> hooks : Arrays.asList(beforeEachScenario, beforeEachStep, afterEachStep, afterEachScenario)) {
+            hooks.forEach(hook -> classes.add(hook.type));
+        }
+        return classes;
+    }
+
+    /**
+     * Hook method which is invoked on a new instance of its class every time, unless the class is {@link Scoped}.
+     */
+    public static final class Hook {
+
+        private final Class<?> type;
+        private final boolean scoped;
+        private final MethodInvoker invoker;
+        // Used in the report entries of every scenario
+        private final String name;
+
+        Hook(Class<?> type, Method method) {
+            this.type = type;
+            this.scoped = type.isAnnotationPresent(Scoped.class);
+            this.invoker = MethodInvoker.of(method);
+            this.name = type.getCanonicalName() + "." + method.getName();
+        }
+
+        public Method getMethod() {
+            return invoker.getMethod();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Invokes the hook with the instances of the given scope. Hooks outside of a step get their own step scope
+         * which ends with the hook.
+         */
+        public Object invoke(Injector injector, ScopedInstances instances, TestContext testContext,
+                             Object... arguments) {
+            if (instances.getScope() != Scope.STEP) {
+                ScopedInstances hookInstances = new ScopedInstances(Scope.STEP, instances);
+                try {
+                    return invoke(injector, hookInstances, testContext, arguments);
+                } finally {
+                    hookInstances.close();
+                }
+            }
+            Object target = scoped
+                    ? injector.getInstance(type, instances, testContext)
+                    : injector.newInstance(type, instances, testContext);
+            return invoker.invoke(target, arguments);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.wire.qa.picklejar.engine;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.commons.util.ExceptionUtils;
+import org.junit.platform.commons.util.ReflectionUtils;
+
+/**
+ * Invokes a step or hook method through a method handle which is bound once per method. The handle takes the target
+ * and the already converted arguments as array and unboxes them itself.
+ * <p>
+ * Reflection generates an accessor class with its own classloader for every method after a few invocations, the
+ * adapted handles of all methods with the same number of parameters share their implementation instead. This keeps
+ * suites with thousands of step methods from loading thousands of classes during execution.
+ * <p>
+ * Exceptions of the method are rethrown unchanged like {@link ReflectionUtils#invokeMethod} does, so a
+ * {@link com.wire.qa.picklejar.engine.exception.SkipException} still reaches the caller as it is.
+ */
+public final class MethodInvoker {
+
+    // Kept per declaring class so the invokers are collected together with the classloader of the steps (watch mode)
+    private static final ClassValue<Map<Method, MethodInvoker>> INVOKERS = new ClassValue<>() {
+        @Override
+        protected Map<Method, MethodInvoker> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final Method method;
+    // (Object target, Object[] arguments)Object
+    private final MethodHandle handle;
+
+    private MethodInvoker(Method method) {
+        this.method = method;
+        MethodHandle methodHandle;
+        try {
+            methodHandle = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup())
+                    .unreflect(method);
+        } catch (IllegalAccessException e) {
+            throw new JUnitException("Cannot access method " + method, e);
+        }
+        if (ReflectionUtils.isStatic(method)) {
+            methodHandle = MethodHandles.dropArguments(methodHandle, 0, Object.class);
+        }
+        this.handle = methodHandle.asType(MethodType.genericMethodType(method.getParameterCount() + 1))
+                .asSpreader(Object[].class, method.getParameterCount());
+    }
+
+    /**
+     * Returns the invoker of the given method which is created on first use.
+     */
+    public static MethodInvoker of(Method method) {
+        return INVOKERS.get(method.getDeclaringClass()).computeIfAbsent(method, MethodInvoker::new);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Invokes the method on the given target (ignored for static methods) and returns its return value or null for
+     * void methods.
+     */
+    public Object invoke(Object target, Object... arguments) {
+        try {
+            return (Object) handle.invokeExact(target, arguments);
+        } catch (Throwable t) {
+            throw ExceptionUtils.throwAsUncheckedException(t);
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.wire.qa.picklejar.engine;
 
-import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -11,7 +15,11 @@ import com.wire.qa.picklejar.engine.discovery.ResourceSeeker;
 import com.wire.qa.picklejar.engine.exception.MisconfigurationException;
 
 import org.junit.platform.commons.util.Preconditions;
+import org.junit.platform.commons.util.StringUtils;
 import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.Filter;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.launcher.TagFilter;
 
 public class PicklejarConfiguration {
 
@@ -21,7 +29,21 @@ public class PicklejarConfiguration {
     private static final String XML_REPORTS_DIRECTORY_PROPERTY_NAME = "com.wire.qa.picklejar.xml-reports.directory";
     private static final String CUCUMBER_REPORT_FILENAME_PROPERTY_NAME = "com.wire.qa.picklejar.cucumber-report.filename";
     private static final String LOGGING_FORMAT = "com.wire.qa.picklejar.engine.logging.format";
+    private static final String LOGGING_BUFFERED_PROPERTY_NAME = "com.wire.qa.picklejar.engine.logging.buffered";
+    private static final String LOGGING_BUFFER_SIZE_PROPERTY_NAME = "com.wire.qa.picklejar.engine.logging.buffer.size";
+    private static final String LOGGING_BUFFER_OVERFLOW_PROPERTY_NAME = "com.wire.qa.picklejar.engine.logging.buffer.overflow";
     private static final String MULTIPLE_STEPS_MATCHING_WARNING = "com.wire.qa.picklejar.engine.multiple-steps-matching-warning";
+    private static final String PARALLEL_DISCOVERY_ENABLED_PROPERTY_NAME = "com.wire.qa.picklejar.engine.discovery.parallel.enabled";
+    private static final String DISCOVERY_PARALLELISM_PROPERTY_NAME = "com.wire.qa.picklejar.engine.discovery.parallelism";
+    private static final String DISCOVERY_CACHE_ENABLED_PROPERTY_NAME = "com.wire.qa.picklejar.engine.discovery.cache.enabled";
+    private static final String DISCOVERY_CACHE_FILE_PROPERTY_NAME = "com.wire.qa.picklejar.engine.discovery.cache.file";
+    private static final String DISCOVERY_STATISTICS_ENABLED_PROPERTY_NAME = "com.wire.qa.picklejar.engine.discovery.statistics.enabled";
+    private static final String DISCOVERY_STATISTICS_FILE_PROPERTY_NAME = "com.wire.qa.picklejar.engine.discovery.statistics.file";
+    private static final String STEP_REGISTRY_ENABLED_PROPERTY_NAME = "com.wire.qa.picklejar.engine.discovery.registry.enabled";
+    private static final String STEP_AUTOMATON_ENABLED_PROPERTY_NAME = "com.wire.qa.picklejar.engine.discovery.automaton.enabled";
+    private static final String PARAMETER_CONVERTERS_PROPERTY_NAME = "com.wire.qa.picklejar.engine.discovery.converters";
+    public static final String INCLUDE_TAGS_PROPERTY_NAME = "com.wire.qa.picklejar.engine.discovery.tags.include";
+    public static final String EXCLUDE_TAGS_PROPERTY_NAME = "com.wire.qa.picklejar.engine.discovery.tags.exclude";
 
     private final ConfigurationParameters configurationParameters;
 
@@ -45,7 +67,7 @@ public class PicklejarConfiguration {
                         FEATURE_FILE_PACKAGE_PROPERTY_NAME)));
     }
 
-    public Set<File> getFeaturesPackagePaths() {
+    public Set<Path> getFeaturesPackagePaths() {
         return ResourceSeeker.getResourceDirectoriesFromPackage(getFeaturesPackageName());
     }
 
@@ -69,8 +91,115 @@ public class PicklejarConfiguration {
         return configurationParameters.get(LOGGING_FORMAT).orElse("%1$tT %2$s %4$s%n");
     }
 
+    // Writes the log records of a scenario at once when it is finished instead of interleaving parallel scenarios
+    public boolean isBufferedLoggingEnabled() {
+        return configurationParameters.getBoolean(LOGGING_BUFFERED_PROPERTY_NAME).orElse(false);
+    }
+
+    public int getLoggingBufferSize() {
+        int size = configurationParameters.get(LOGGING_BUFFER_SIZE_PROPERTY_NAME, Integer::parseInt).orElse(10_000);
+        Preconditions.condition(size > 0,
+                String.format("Property %s must be greater than 0", LOGGING_BUFFER_SIZE_PROPERTY_NAME));
+        return size;
+    }
+
+    BufferedLogHandler.OverflowPolicy getLoggingBufferOverflowPolicy() {
+        String policy = configurationParameters.get(LOGGING_BUFFER_OVERFLOW_PROPERTY_NAME).orElse("flush");
+        try {
+            return BufferedLogHandler.OverflowPolicy.valueOf(policy.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new MisconfigurationException(String.format("Property %s must be flush or drop-oldest but was %s",
+                    LOGGING_BUFFER_OVERFLOW_PROPERTY_NAME, policy));
+        }
+    }
+
     public boolean doMultipleStepsMatchingWarning() {
         return configurationParameters.getBoolean(MULTIPLE_STEPS_MATCHING_WARNING).orElse(true);
     }
 
+    public boolean isParallelDiscoveryEnabled() {
+        return configurationParameters.getBoolean(PARALLEL_DISCOVERY_ENABLED_PROPERTY_NAME).orElse(false);
+    }
+
+    public int getDiscoveryParallelism() {
+        int parallelism = configurationParameters.get(DISCOVERY_PARALLELISM_PROPERTY_NAME, Integer::parseInt)
+                .orElse(Runtime.getRuntime().availableProcessors());
+        Preconditions.condition(parallelism > 0,
+                String.format("Property %s must be greater than 0", DISCOVERY_PARALLELISM_PROPERTY_NAME));
+        return parallelism;
+    }
+
+    public boolean isDiscoveryCacheEnabled() {
+        return configurationParameters.getBoolean(DISCOVERY_CACHE_ENABLED_PROPERTY_NAME).orElse(false);
+    }
+
+    public boolean isDiscoveryStatisticsEnabled() {
+        return configurationParameters.getBoolean(DISCOVERY_STATISTICS_ENABLED_PROPERTY_NAME).orElse(false);
+    }
+
+    public Path getDiscoveryStatisticsFile() {
+        return configurationParameters.get(DISCOVERY_STATISTICS_FILE_PROPERTY_NAME)
+                .map(Paths::get)
+                .orElseGet(() -> getBuildDirectory().resolve("picklejar-discovery-statistics.json"));
+    }
+
+    // Uses the step registry generated by StepRegistryProcessor instead of scanning the steps packages if available
+    public boolean isStepRegistryEnabled() {
+        return configurationParameters.getBoolean(STEP_REGISTRY_ENABLED_PROPERTY_NAME).orElse(false);
+    }
+
+    // Matches every step text against all step regexes in one pass instead of checking them one after another
+    public boolean isStepAutomatonEnabled() {
+        return configurationParameters.getBoolean(STEP_AUTOMATON_ENABLED_PROPERTY_NAME).orElse(false);
+    }
+
+    // Class names of additional ParameterConverters in the order in which they are asked
+    public List<String> getParameterConverterClassNames() {
+        return configurationParameters.get(PARAMETER_CONVERTERS_PROPERTY_NAME)
+                .filter(StringUtils::isNotBlank)
+                .map(names -> Arrays.stream(names.split(","))
+                        .map(String::trim)
+                        .filter(StringUtils::isNotBlank)
+                        .collect(Collectors.toList()))
+                .orElse(Collections.emptyList());
+    }
+
+    /*
+    Comma separated tag expressions which are evaluated the same way as JUnit's TagFilter (a scenario is included if
+    it matches any of the included and none of the excluded expressions) but already during discovery, so that the
+    steps of excluded scenarios are never resolved. Empty if no tags are configured.
+     */
+    public Optional<Filter<TestDescriptor>> getTagFilter() {
+        List<Filter<TestDescriptor>> filters = new ArrayList<>();
+        configurationParameters.get(INCLUDE_TAGS_PROPERTY_NAME)
+                .filter(StringUtils::isNotBlank)
+                .ifPresent(tags -> filters.add(TagFilter.includeTags(tags.split(","))));
+        configurationParameters.get(EXCLUDE_TAGS_PROPERTY_NAME)
+                .filter(StringUtils::isNotBlank)
+                .ifPresent(tags -> filters.add(TagFilter.excludeTags(tags.split(","))));
+        return filters.isEmpty() ? Optional.empty() : Optional.of(Filter.composeFilters(filters));
+    }
+
+    // By default the cache is stored next to the reports in the build directory (e.g. target/ or build/)
+    public Path getDiscoveryCacheFile() {
+        return configurationParameters.get(DISCOVERY_CACHE_FILE_PROPERTY_NAME)
+                .map(Paths::get)
+                .orElseGet(() -> getBuildDirectory().resolve("picklejar-discovery-cache.json"));
+    }
+
+    /*
+    The target/ (Maven) or build/ (Gradle) folder of the working directory, which is the project directory when the
+    tests are started by the build tool or the IDE. Falls back to the working directory itself.
+     */
+    public Path getBuildDirectory() {
+        Path workingDirectory = Paths.get(System.getProperty("user.dir"));
+        for (String folder : Arrays.asList("target", "build")) {
+            Path buildDirectory = workingDirectory.resolve(folder);
+            if (Files.isDirectory(buildDirectory)) {
+                return buildDirectory;
+            }
+        }
+        return workingDirectory;
+    }
+
 }
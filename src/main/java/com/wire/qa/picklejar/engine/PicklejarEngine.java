@@ -4,6 +4,7 @@ import java.util.Optional;
 import java.util.logging.Logger;
 
 import com.wire.qa.picklejar.engine.discovery.DiscoverySelectorResolver;
+import com.wire.qa.picklejar.engine.discovery.StepClassesCache;
 import com.wire.qa.picklejar.engine.descriptor.PicklejarEngineDescriptor;
 
 import com.wire.qa.picklejar.launcher.listeners.CucumberReportGeneratingListener;
@@ -25,6 +26,8 @@ public final class PicklejarEngine extends HierarchicalTestEngine<PicklejarEngin
 
     private static final Logger logger = Logger.getLogger(PicklejarEngine.class.getName());
     private final CucumberReportGeneratingListener cucumberReportGeneratingListener;
+    // Reused by the discoveries of reruns and watch mode which run on the same engine instance
+    private final StepClassesCache stepClassesCache = new StepClassesCache();
 
     // For tests only
     public PicklejarEngine() {
@@ -62,7 +65,7 @@ public final class PicklejarEngine extends HierarchicalTestEngine<PicklejarEngin
         }
         logger.info("[Discovery] Started");
         PicklejarEngineDescriptor engineDescriptor = new PicklejarEngineDescriptor(uniqueId, configuration);
-        new DiscoverySelectorResolver().discover(engineDiscoveryRequest, engineDescriptor);
+        new DiscoverySelectorResolver(stepClassesCache).discover(engineDiscoveryRequest, engineDescriptor);
         return engineDescriptor;
     }
 
@@ -78,14 +81,12 @@ public final class PicklejarEngine extends HierarchicalTestEngine<PicklejarEngin
 
     @Override
     protected PicklejarEngineExecutionContext createExecutionContext(ExecutionRequest executionRequest) {
+        PicklejarEngineDescriptor engineDescriptor = (PicklejarEngineDescriptor) executionRequest.getRootTestDescriptor();
         return new PicklejarEngineExecutionContext(executionRequest.getEngineExecutionListener(),
                 cucumberReportGeneratingListener,
-                getPicklejarConfiguration(executionRequest));
-    }
-
-    private PicklejarConfiguration getPicklejarConfiguration(ExecutionRequest request) {
-        PicklejarEngineDescriptor engineDescriptor = (PicklejarEngineDescriptor) request.getRootTestDescriptor();
-        return engineDescriptor.getConfiguration();
+                engineDescriptor.getConfiguration(),
+                engineDescriptor.getLifecycleHooks(),
+                engineDescriptor.getInjector());
     }
 
 }
\ No newline at end of file
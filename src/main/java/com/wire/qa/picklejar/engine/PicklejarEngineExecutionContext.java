@@ -1,14 +1,7 @@
 package com.wire.qa.picklejar.engine;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
-
 import com.wire.qa.picklejar.launcher.listeners.CucumberReportGeneratingListener;
 import org.junit.platform.commons.JUnitException;
-import org.junit.platform.commons.util.ReflectionUtils;
 import org.junit.platform.engine.EngineExecutionListener;
 import org.junit.platform.engine.support.hierarchical.EngineExecutionContext;
 import org.junit.platform.engine.support.hierarchical.ThrowableCollector;
@@ -16,13 +9,14 @@ import org.junit.platform.engine.support.hierarchical.ThrowableCollector;
 public class PicklejarEngineExecutionContext implements EngineExecutionContext {
 
     private final State state;
-    private final Predicate<Class<?>> allTypes = type -> true;
-    private final Predicate<String> allNames = name -> true;
 
     public PicklejarEngineExecutionContext(EngineExecutionListener executionListener,
                                            CucumberReportGeneratingListener cucumberReportGeneratingListener,
-                                           PicklejarConfiguration configuration) {
-        this(new State(executionListener, cucumberReportGeneratingListener, configuration));
+                                           PicklejarConfiguration configuration,
+                                           LifecycleHooks lifecycleHooks,
+                                           Injector injector) {
+        this(new State(executionListener, cucumberReportGeneratingListener, configuration, lifecycleHooks, injector,
+                new ScopedInstances(Scope.RUN, null)));
     }
 
     private PicklejarEngineExecutionContext(State state) {
@@ -42,6 +36,10 @@ public class PicklejarEngineExecutionContext implements EngineExecutionContext {
         final EngineExecutionListener executionListener;
         final CucumberReportGeneratingListener cucumberReportGeneratingListener;
         final PicklejarConfiguration configuration;
+        final LifecycleHooks lifecycleHooks;
+        final Injector injector;
+        // Instances of the innermost scope of the node, e.g. of the feature
+        ScopedInstances instances;
         /*
         TestInstancesProvider testInstancesProvider;
         ExtensionRegistry extensionRegistry;
@@ -51,10 +49,16 @@ public class PicklejarEngineExecutionContext implements EngineExecutionContext {
 
         State(EngineExecutionListener executionListener,
               CucumberReportGeneratingListener cucumberReportGeneratingListener,
-              PicklejarConfiguration configuration) {
+              PicklejarConfiguration configuration,
+              LifecycleHooks lifecycleHooks,
+              Injector injector,
+              ScopedInstances instances) {
             this.executionListener = executionListener;
             this.cucumberReportGeneratingListener = cucumberReportGeneratingListener;
             this.configuration = configuration;
+            this.lifecycleHooks = lifecycleHooks;
+            this.injector = injector;
+            this.instances = instances;
         }
 
         @Override
@@ -68,12 +72,24 @@ public class PicklejarEngineExecutionContext implements EngineExecutionContext {
 
     }
 
-    public Collection<Class<?>> getTestClassesFromFirstStepsPackage() {
-        List<Class<?>> classes = new ArrayList<>();
-        classes.addAll(ReflectionUtils.findAllClassesInPackage(
-                state.configuration.getStepsPackageNames().get(0),
-                allTypes,
-                allNames));
-        return classes;
+    public LifecycleHooks getLifecycleHooks() {
+        return state.lifecycleHooks;
+    }
+
+    public Injector getInjector() {
+        return state.injector;
+    }
+
+    public ScopedInstances getInstances() {
+        return state.instances;
+    }
+
+    /**
+     * Returns a context for the children of a node which opens a new scope.
+     */
+    public PicklejarEngineExecutionContext withInstances(ScopedInstances instances) {
+        State newState = state.clone();
+        newState.instances = instances;
+        return new PicklejarEngineExecutionContext(newState);
     }
 }
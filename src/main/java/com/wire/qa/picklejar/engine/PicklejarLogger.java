@@ -6,11 +6,14 @@ import java.util.logging.*;
 
 public class PicklejarLogger {
 
+    // Only set if buffered logging is enabled
+    private static volatile BufferedLogHandler bufferedHandler = null;
+
     public static void configureLogging(PicklejarConfiguration configuration) {
         Logger logger = Logger.getLogger("com.wire.qa.picklejar.engine");
         logger.setUseParentHandlers(false);
-        ConsoleHandler handler = new ConsoleHandler();
-        handler.setFormatter(new SimpleFormatter() {
+        ConsoleHandler consoleHandler = new ConsoleHandler();
+        consoleHandler.setFormatter(new SimpleFormatter() {
             private final String format = configuration.getLoggingFormat();
 
             @Override
@@ -23,13 +26,49 @@ public class PicklejarLogger {
                 );
             }
         });
+        Handler handler = consoleHandler;
+        if (configuration.isBufferedLoggingEnabled()) {
+            handler = new BufferedLogHandler(consoleHandler, configuration.getLoggingBufferSize(),
+                    configuration.getLoggingBufferOverflowPolicy());
+        }
         removeAllHandler(logger);
+        BufferedLogHandler previousHandler = bufferedHandler;
+        bufferedHandler = handler instanceof BufferedLogHandler ? (BufferedLogHandler) handler : null;
+        if (previousHandler != null) {
+            previousHandler.close();
+        }
         logger.addHandler(handler);
         Logger launcherLogger = Logger.getLogger("org.junit.platform.launcher");
         removeAllHandler(launcherLogger);
         launcherLogger.addHandler(handler);
     }
 
+    /**
+     * Starts buffering the log records of the current thread until the scenario is finished. Does nothing if buffered
+     * logging is disabled.
+     */
+    public static void startScenario() {
+        BufferedLogHandler handler = bufferedHandler;
+        if (handler != null) {
+            handler.startBuffering();
+        }
+    }
+
+    public static void finishScenario() {
+        BufferedLogHandler handler = bufferedHandler;
+        if (handler != null) {
+            handler.finishBuffering();
+        }
+    }
+
+    // Waits until the buffered log records of all finished scenarios are written
+    public static void flush() {
+        BufferedLogHandler handler = bufferedHandler;
+        if (handler != null) {
+            handler.flush();
+        }
+    }
+
     private static void removeAllHandler(Logger logger) {
         Arrays.stream(logger.getHandlers()).forEach(logger::removeHandler);
     }
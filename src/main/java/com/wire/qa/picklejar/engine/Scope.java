@@ -0,0 +1,29 @@
+package com.wire.qa.picklejar.engine;
+
+/**
+ * Lifetime of the instances of a {@link com.wire.qa.picklejar.engine.annotations.Scoped} class, from the widest to
+ * the narrowest scope.
+ */
+public enum Scope {
+
+    /**
+     * One instance for the whole execution of the engine
+     */
+    RUN,
+
+    /**
+     * One instance per feature, shared by all its scenarios
+     */
+    FEATURE,
+
+    /**
+     * One instance per scenario, shared by all its steps and lifecycle hooks
+     */
+    SCENARIO,
+
+    /**
+     * One instance per step, shared with the @BeforeEachStep and @AfterEachStep hooks of the step
+     */
+    STEP
+
+}
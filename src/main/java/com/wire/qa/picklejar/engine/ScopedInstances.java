@@ -0,0 +1,82 @@
+package com.wire.qa.picklejar.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.junit.platform.commons.JUnitException;
+
+/**
+ * Instances which live as long as one run, feature, scenario or step. The instances of the enclosing scopes are
+ * reached through the parent. Closing the scope closes its {@link AutoCloseable} instances in reverse order of their
+ * creation, so an instance is closed before the instances it depends on.
+ */
+public final class ScopedInstances {
+
+    private static final Logger logger = Logger.getLogger(ScopedInstances.class.getName());
+
+    private final Scope scope;
+    private final ScopedInstances parent;
+    // Only created on first use because most steps have no step scoped instances
+    private Map<Class<?>, Object> instances = null;
+
+    public ScopedInstances(Scope scope, ScopedInstances parent) {
+        this.scope = scope;
+        this.parent = parent;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    ScopedInstances find(Scope scope) {
+        ScopedInstances current = this;
+        while (current != null && current.scope != scope) {
+            current = current.parent;
+        }
+        if (current == null) {
+            throw new JUnitException(String.format("No %s scope is active in %s scope", scope, this.scope));
+        }
+        return current;
+    }
+
+    // Callers synchronize on this object while creating a missing instance
+    Object get(Class<?> type) {
+        return instances == null ? null : instances.get(type);
+    }
+
+    void put(Class<?> type, Object instance) {
+        if (instances == null) {
+            instances = new LinkedHashMap<>();
+        }
+        instances.put(type, instance);
+    }
+
+    /**
+     * Closes the instances of this scope. Exceptions are logged so that all instances get closed.
+     */
+    public void close() {
+        List<Object> closing;
+        synchronized (this) {
+            if (instances == null) {
+                return;
+            }
+            closing = new ArrayList<>(instances.values());
+            instances = null;
+        }
+        Collections.reverse(closing);
+        for (Object instance : closing) {
+            if (instance instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) instance).close();
+                } catch (Exception e) {
+                    logger.warning(() -> String.format("[Execution] Could not close %s scoped %s: %s",
+                            scope, instance.getClass().getName(), e.getMessage()));
+                }
+            }
+        }
+    }
+}
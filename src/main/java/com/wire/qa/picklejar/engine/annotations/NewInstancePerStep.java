@@ -0,0 +1,18 @@
+package com.wire.qa.picklejar.engine.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Creates a new instance of the annotated step class for every step instead of reusing one instance for all steps
+ * of a scenario. Only needed for step classes which rely on being fresh for every step.
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface NewInstancePerStep {
+
+}
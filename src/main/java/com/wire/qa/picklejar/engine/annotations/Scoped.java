@@ -0,0 +1,22 @@
+package com.wire.qa.picklejar.engine.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.wire.qa.picklejar.engine.Scope;
+
+/**
+ * Makes the annotated class injectable into the constructors of step classes, lifecycle classes and other scoped
+ * classes. One instance is created per given scope and closed at its end if it implements {@link AutoCloseable}.
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Scoped {
+
+    Scope value();
+
+}
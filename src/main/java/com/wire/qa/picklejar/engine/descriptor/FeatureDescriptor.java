@@ -1,24 +1,27 @@
 package com.wire.qa.picklejar.engine.descriptor;
 
 import com.wire.qa.picklejar.engine.PicklejarEngineExecutionContext;
+import com.wire.qa.picklejar.engine.Scope;
+import com.wire.qa.picklejar.engine.ScopedInstances;
 import com.wire.qa.picklejar.engine.gherkin.model.Feature;
 import org.junit.platform.engine.TestTag;
 import org.junit.platform.engine.UniqueId;
 import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
 import org.junit.platform.engine.support.hierarchical.Node;
 
-import java.io.File;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class FeatureDescriptor extends AbstractTestDescriptor implements Node<PicklejarEngineExecutionContext> {
 
+    public static final String SEGMENT_TYPE = "Feature";
+
     private Feature feature;
-    private Set<TestTag> tags = new HashSet<>();
-    private File file;
+    private Set<TestTag> tags = Collections.emptySet();
+    private Path file;
 
-    public FeatureDescriptor(UniqueId uniqueId, String featureName, File file, String featureFolder) {
-        super(uniqueId.append("Feature", featureFolder + featureName),
+    public FeatureDescriptor(UniqueId uniqueId, String featureName, Path file, String featureFolder) {
+        super(uniqueId.append(SEGMENT_TYPE, featureFolder + featureName),
                 featureFolder + featureName);
         this.file = file;
     }
@@ -28,8 +31,9 @@ public class FeatureDescriptor extends AbstractTestDescriptor implements Node<Pi
         return tags;
     }
 
-    public void setTags(List<String> tags) {
-        this.tags = tags.stream().map(TestTag::create).collect(Collectors.toSet());
+    // The tag sets are shared between the descriptors of a discovery and must not be modified
+    public void setTags(Set<TestTag> tags) {
+        this.tags = tags;
     }
 
     @Override
@@ -44,7 +48,17 @@ public class FeatureDescriptor extends AbstractTestDescriptor implements Node<Pi
         return feature;
     }
 
-    public File getFile() {
+    public Path getFile() {
         return file;
     }
+
+    @Override
+    public PicklejarEngineExecutionContext before(PicklejarEngineExecutionContext context) {
+        return context.withInstances(new ScopedInstances(Scope.FEATURE, context.getInstances()));
+    }
+
+    @Override
+    public void after(PicklejarEngineExecutionContext context) {
+        context.getInstances().close();
+    }
 }
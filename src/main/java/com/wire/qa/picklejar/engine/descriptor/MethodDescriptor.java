@@ -2,30 +2,32 @@ package com.wire.qa.picklejar.engine.descriptor;
 
 import java.lang.reflect.Method;
 
+/**
+ * Resolved step method together with its converted parameters and the texts they were converted from. Instances
+ * are shared between all steps with the same text and must therefore not be modified.
+ */
 public class MethodDescriptor {
 
-    private String text;
-    private Method method;
-    private Object[] parameters;
+    private final Method method;
+    private final Object[] parameters;
+    private final String[] arguments;
 
-    public MethodDescriptor(Method method, Object[] parameters) {
+    public MethodDescriptor(Method method, Object[] parameters, String[] arguments) {
         this.method = method;
         this.parameters = parameters;
-	}
-
-	public void setMethod(Method method) {
-        this.method = method;
-	}
+        this.arguments = arguments;
+    }
 
-	public Method getMethod() {
-		return this.method;
+    public Method getMethod() {
+        return this.method;
     }
-    
+
     public Object[] getParameters() {
         return this.parameters;
     }
 
-    public void setParameters(Object[] parameters) {
-        this.parameters = parameters;
-	}
-}
\ No newline at end of file
+    // Texts captured by the groups of the step regex, null for groups which did not participate in the match
+    public String[] getArguments() {
+        return this.arguments;
+    }
+}
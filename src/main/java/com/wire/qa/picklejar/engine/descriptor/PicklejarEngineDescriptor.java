@@ -1,7 +1,12 @@
 package com.wire.qa.picklejar.engine.descriptor;
 
+import java.util.Collections;
+
+import com.wire.qa.picklejar.engine.Injector;
+import com.wire.qa.picklejar.engine.LifecycleHooks;
 import com.wire.qa.picklejar.engine.PicklejarConfiguration;
 import com.wire.qa.picklejar.engine.PicklejarEngineExecutionContext;
+import com.wire.qa.picklejar.engine.PicklejarLogger;
 
 import org.junit.platform.engine.UniqueId;
 import org.junit.platform.engine.support.descriptor.EngineDescriptor;
@@ -12,6 +17,8 @@ public class PicklejarEngineDescriptor extends EngineDescriptor implements Node<
     public static final String ENGINE_ID = "picklejar-engine";
 
     private final PicklejarConfiguration configuration;
+    private LifecycleHooks lifecycleHooks = LifecycleHooks.EMPTY;
+    private Injector injector = Injector.create(Collections.emptyList());
 
     public PicklejarEngineDescriptor(UniqueId uniqueId, PicklejarConfiguration configuration) {
         super(uniqueId, "Picklejar Engine");
@@ -22,4 +29,27 @@ public class PicklejarEngineDescriptor extends EngineDescriptor implements Node<
         return configuration;
     }
 
+    public LifecycleHooks getLifecycleHooks() {
+        return lifecycleHooks;
+    }
+
+    public void setLifecycleHooks(LifecycleHooks lifecycleHooks) {
+        this.lifecycleHooks = lifecycleHooks;
+    }
+
+    public Injector getInjector() {
+        return injector;
+    }
+
+    public void setInjector(Injector injector) {
+        this.injector = injector;
+    }
+
+    @Override
+    public void after(PicklejarEngineExecutionContext context) {
+        // Closes the run scoped instances
+        context.getInstances().close();
+        PicklejarLogger.flush();
+    }
+
 }
\ No newline at end of file
@@ -1,25 +1,22 @@
 package com.wire.qa.picklejar.engine.descriptor;
 
-import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+import com.wire.qa.picklejar.engine.LifecycleHooks;
+import com.wire.qa.picklejar.engine.MethodInvoker;
 import com.wire.qa.picklejar.engine.TestContext;
 import com.wire.qa.picklejar.engine.PicklejarEngineExecutionContext;
-import com.wire.qa.picklejar.engine.annotations.AfterEachScenario;
-import com.wire.qa.picklejar.engine.annotations.AfterEachStep;
-import com.wire.qa.picklejar.engine.annotations.BeforeEachScenario;
-import com.wire.qa.picklejar.engine.annotations.BeforeEachStep;
+import com.wire.qa.picklejar.engine.PicklejarLogger;
+import com.wire.qa.picklejar.engine.Scope;
+import com.wire.qa.picklejar.engine.ScopedInstances;
 import com.wire.qa.picklejar.engine.exception.SkipException;
 import com.wire.qa.picklejar.engine.gherkin.model.Around;
 import com.wire.qa.picklejar.engine.gherkin.model.Feature;
@@ -27,9 +24,7 @@ import com.wire.qa.picklejar.engine.gherkin.model.Result;
 import com.wire.qa.picklejar.engine.gherkin.model.Scenario;
 import com.wire.qa.picklejar.engine.gherkin.model.Step;
 import com.wire.qa.picklejar.engine.gherkin.model.Tag;
-import org.junit.platform.commons.util.AnnotationUtils;
 import org.junit.platform.commons.util.Preconditions;
-import org.junit.platform.commons.util.ReflectionUtils;
 import org.junit.platform.engine.TestExecutionResult;
 import org.junit.platform.engine.TestTag;
 import org.junit.platform.engine.UniqueId;
@@ -38,33 +33,36 @@ import org.junit.platform.engine.support.descriptor.AbstractTestDescriptor;
 import org.junit.platform.engine.support.hierarchical.ExclusiveResource;
 import org.junit.platform.engine.support.hierarchical.Node;
 
-import static org.junit.platform.commons.util.ReflectionUtils.HierarchyTraversalMode.TOP_DOWN;
-
 public class ScenarioDescriptor extends AbstractTestDescriptor implements Node<PicklejarEngineExecutionContext> {
 
     private static final Logger logger = Logger.getLogger(ScenarioDescriptor.class.getName());
 
-    private final Map<String, Object> classInstanceCache = new ConcurrentHashMap<>();
+    // Only created while the scenario is executed to keep the discovered test plan small
+    private ScopedInstances scenarioInstances = null;
+    private ScopedInstances stepInstances = null;
     private TestContext testContext = null;
 
     private Scenario scenario = null;
-    private Set<TestTag> tags = new HashSet<>();
-    private File file;
+    private Set<TestTag> tags = Collections.emptySet();
+    private Path file;
+    // Line of the scenario or of the example row in the feature file
+    private int line = 1;
     private List<StepDescriptor> stepDescriptors;
 
     private TestExecutionResult executionResult;
 
-    public ScenarioDescriptor(UniqueId uniqueId, String scenarioName, File file) {
+    public ScenarioDescriptor(UniqueId uniqueId, String scenarioName, Path file) {
         // Example: [engine:picklejar-engine]/[Feature:Examples]/[Scenario:Test without examples]
         super(uniqueId.append("Scenario", scenarioName), scenarioName);
         this.file = file;
     }
 
-    public ScenarioDescriptor(UniqueId uniqueId, String scenarioName, int exampleNumber, File file) {
+    public ScenarioDescriptor(UniqueId uniqueId, String scenarioName, int exampleNumber, Path file) {
         // Example: [engine:picklejar-engine]/[Feature:Examples]/[Scenario:Test with examples]/[Example:0]
         super(uniqueId
                         .append("Scenario", scenarioName)
-                        .append("Example", String.valueOf(exampleNumber)),
+                        // The example numbers repeat for every outline so their strings are shared
+                        .append("Example", String.valueOf(exampleNumber).intern()),
                 scenarioName + " " + exampleNumber);
         this.file = file;
     }
@@ -84,17 +82,26 @@ public class ScenarioDescriptor extends AbstractTestDescriptor implements Node<P
     }
 
     public void setStepDescriptors(List<StepDescriptor> stepDescriptors) {
-        this.stepDescriptors = stepDescriptors;
+        this.stepDescriptors = List.copyOf(stepDescriptors);
     }
 
-    public void setTags(List<String> tags) {
-        this.tags = tags.stream().map(TestTag::create).collect(Collectors.toSet());
+    // The tag sets are shared between the descriptors of a discovery and must not be modified
+    public void setTags(Set<TestTag> tags) {
+        this.tags = tags;
     }
 
-    public File getFile() {
+    public Path getFile() {
         return file;
     }
 
+    public void setLine(int line) {
+        this.line = line;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
     // Overriding getExclusiveResources() makes it possible to lock resources on runtime
     @Override
     public Set<ExclusiveResource> getExclusiveResources() {
@@ -117,7 +124,8 @@ public class ScenarioDescriptor extends AbstractTestDescriptor implements Node<P
             }
 
             scenario = new Scenario(feature, getDisplayName(), "", 0,
-                    "Scenario Outline", steps, getTags().stream().map(t -> new Tag(t.getName())).collect(Collectors.toList()));
+                    "Scenario Outline", steps, getTags().stream().map(t -> new Tag(t.getName())).collect(Collectors.toList()),
+                    getLine());
         }
         return scenario;
     }
@@ -126,6 +134,18 @@ public class ScenarioDescriptor extends AbstractTestDescriptor implements Node<P
         return ExecutionMode.CONCURRENT;
     }
 
+    // With buffered logging the log of the whole scenario is written at once when it is finished
+    @Override
+    public void around(PicklejarEngineExecutionContext context,
+                       Invocation<PicklejarEngineExecutionContext> invocation) throws Exception {
+        PicklejarLogger.startScenario();
+        try {
+            invocation.invoke(context);
+        } finally {
+            PicklejarLogger.finishScenario();
+        }
+    }
+
     public PicklejarEngineExecutionContext before(PicklejarEngineExecutionContext context) {
         logger.info("=".repeat(77));
         logger.info(() -> String.format("[%d] TAGS: %s",
@@ -136,43 +156,37 @@ public class ScenarioDescriptor extends AbstractTestDescriptor implements Node<P
                 this.getScenario().getFeature().getName(),
                 this.getScenario().getName()));
         logger.info(("=").repeat(77));
+        scenarioInstances = new ScopedInstances(Scope.SCENARIO, context.getInstances());
         // execute @BeforeEachScenario
-        for (Class<?> c : context.getTestClassesFromFirstStepsPackage()) {
-            for (Method method : AnnotationUtils.findAnnotatedMethods(c, BeforeEachScenario.class, TOP_DOWN)) {
-                if (method.getReturnType() == TestContext.class) {
-                    Instant endTime = null;
-                    Instant startTime = Instant.now();
-                    try {
-                        Preconditions.condition(method.getParameterCount() == 1,
-                                "@BeforeEachScenario method has wrong number of parameters");
-                        Map<String, String> reportEntries = new HashMap<>();
-                        reportEntries.put("class", c.getCanonicalName() + "." + method.getName());
-                        reportEntries.put("scenario", this.getScenario().getName());
-                        reportEntries.put("status", "started");
-                        context.getExecutionListener().reportingEntryPublished(this, ReportEntry.from(reportEntries));
-                        Object returnValue = ReflectionUtils.invokeMethod(method, ReflectionUtils.newInstance(c),
-                                getScenario());
-                        if (returnValue != null) {
-                            Preconditions.condition(returnValue instanceof TestContext,
-                                    "@BeforeEachScenario method is missing return value that extends TestContext");
-                            this.testContext = (TestContext) returnValue;
-                        }
-                    } catch (Exception e) {
-                        endTime = Instant.now();
-                        Result result = new Result(Duration.between(startTime, endTime).toNanos(), Result.FAILED,
-                                e.getMessage());
-                        this.getScenario().setBefore(new Around(result));
-                        logger.severe("[BeforeEachScenario] Exception: " + e.getMessage());
-                        e.printStackTrace();
-                        throw e;
-                    }
-                }
+        for (LifecycleHooks.Hook hook : context.getLifecycleHooks().getBeforeEachScenario()) {
+            Instant endTime = null;
+            Instant startTime = Instant.now();
+            try {
                 Map<String, String> reportEntries = new HashMap<>();
-                reportEntries.put("class", c.getCanonicalName() + "." + method.getName());
+                reportEntries.put("class", hook.getName());
                 reportEntries.put("scenario", this.getScenario().getName());
-                reportEntries.put("status", "finished");
+                reportEntries.put("status", "started");
                 context.getExecutionListener().reportingEntryPublished(this, ReportEntry.from(reportEntries));
+                Object returnValue = hook.invoke(context.getInjector(), scenarioInstances, testContext, getScenario());
+                if (returnValue != null) {
+                    Preconditions.condition(returnValue instanceof TestContext,
+                            "@BeforeEachScenario method is missing return value that extends TestContext");
+                    this.testContext = (TestContext) returnValue;
+                }
+            } catch (Exception e) {
+                endTime = Instant.now();
+                Result result = new Result(Duration.between(startTime, endTime).toNanos(), Result.FAILED,
+                        e.getMessage());
+                this.getScenario().setBefore(new Around(result));
+                logger.severe("[BeforeEachScenario] Exception: " + e.getMessage());
+                e.printStackTrace();
+                throw e;
             }
+            Map<String, String> reportEntries = new HashMap<>();
+            reportEntries.put("class", hook.getName());
+            reportEntries.put("scenario", this.getScenario().getName());
+            reportEntries.put("status", "finished");
+            context.getExecutionListener().reportingEntryPublished(this, ReportEntry.from(reportEntries));
         }
 
         return context;
@@ -187,14 +201,11 @@ public class ScenarioDescriptor extends AbstractTestDescriptor implements Node<P
                     Thread.currentThread().getId(),
                     stepDescriptor.getDisplayName()));
             logger.info("-".repeat(77));
+            stepInstances = new ScopedInstances(Scope.STEP, scenarioInstances);
             // execute @BeforeEachStep
-            for (Class<?> c : context.getTestClassesFromFirstStepsPackage()) {
-                for (Method method : AnnotationUtils.findAnnotatedMethods(c, BeforeEachStep.class, TOP_DOWN)) {
-                    Preconditions.condition(method.getParameterCount() == 3,
-                            "@BeforeEachStep method has wrong number of parameters");
-                    ReflectionUtils.invokeMethod(method, ReflectionUtils.newInstance(c), testContext,
-                            getScenario(), stepDescriptor.getStep());
-                }
+            for (LifecycleHooks.Hook hook : context.getLifecycleHooks().getBeforeEachStep()) {
+                hook.invoke(context.getInjector(), stepInstances, testContext, testContext, getScenario(),
+                        stepDescriptor.getStep());
             }
             Instant endTime = null;
             Instant startTime = Instant.now();
@@ -207,17 +218,10 @@ public class ScenarioDescriptor extends AbstractTestDescriptor implements Node<P
             reportEntries.put("status", StepExecutionResult.STARTED.toString());
             context.getExecutionListener().reportingEntryPublished(this, ReportEntry.from(reportEntries));
             try {
-                // Using the TestContext is optional
-                if (testContext != null) {
-                    ReflectionUtils.invokeMethod(stepDescriptor.getMethodDescriptor().getMethod(),
-                            getDeclaringClassForMethod(stepDescriptor.getMethodDescriptor().getMethod(),
-                                    testContext),
-                            stepDescriptor.getMethodDescriptor().getParameters());
-                } else {
-                    ReflectionUtils.invokeMethod(stepDescriptor.getMethodDescriptor().getMethod(),
-                            getDeclaringClassForMethod(stepDescriptor.getMethodDescriptor().getMethod()),
-                            stepDescriptor.getMethodDescriptor().getParameters());
-                }
+                MethodInvoker invoker = MethodInvoker.of(stepDescriptor.getMethodDescriptor().getMethod());
+                invoker.invoke(context.getInjector().getInstance(invoker.getMethod().getDeclaringClass(),
+                                stepInstances, testContext),
+                        stepDescriptor.getMethodDescriptor().getParameters());
             } catch (SkipException se) {
                 logger.info(() -> String.format("[%d] SKIPPED",
                         Thread.currentThread().getId()));
@@ -230,14 +234,11 @@ public class ScenarioDescriptor extends AbstractTestDescriptor implements Node<P
                 context.getExecutionListener().reportingEntryPublished(this, ReportEntry.from(reportEntries));
                 context.getExecutionListener().executionFinished(this, executionResult);
                 // execute @AfterEachStep in case of skipped step
-                for (Class<?> c : context.getTestClassesFromFirstStepsPackage()) {
-                    for (Method method : AnnotationUtils.findAnnotatedMethods(c, AfterEachStep.class, TOP_DOWN)) {
-                        Preconditions.condition(method.getParameterCount() == 3,
-                                "@AfterEachStep method has wrong number of parameters");
-                        ReflectionUtils.invokeMethod(method, ReflectionUtils.newInstance(c), testContext,
-                                getScenario(), stepDescriptor.getStep());
-                    }
+                for (LifecycleHooks.Hook hook : context.getLifecycleHooks().getAfterEachStep()) {
+                    hook.invoke(context.getInjector(), stepInstances, testContext, testContext, getScenario(),
+                            stepDescriptor.getStep());
                 }
+                stepInstances.close();
                 // Cucumber report listener is not attached when test is executed via IntelliJ JUnit run configuration
                 if (context.getCucumberReportGeneratingListener() != null) {
                     context.getCucumberReportGeneratingListener().stepExecutionFinished(stepDescriptor, result);
@@ -255,14 +256,11 @@ public class ScenarioDescriptor extends AbstractTestDescriptor implements Node<P
                 reportEntries.put("duration", String.valueOf(result.getDuration()));
                 context.getExecutionListener().reportingEntryPublished(this, ReportEntry.from(reportEntries));
                 // execute @AfterEachStep in case of failed step
-                for (Class<?> c : context.getTestClassesFromFirstStepsPackage()) {
-                    for (Method method : AnnotationUtils.findAnnotatedMethods(c, AfterEachStep.class, TOP_DOWN)) {
-                        Preconditions.condition(method.getParameterCount() == 3,
-                                "@AfterEachStep method has wrong number of parameters");
-                        ReflectionUtils.invokeMethod(method, ReflectionUtils.newInstance(c), testContext,
-                                getScenario(), stepDescriptor.getStep());
-                    }
+                for (LifecycleHooks.Hook hook : context.getLifecycleHooks().getAfterEachStep()) {
+                    hook.invoke(context.getInjector(), stepInstances, testContext, testContext, getScenario(),
+                            stepDescriptor.getStep());
                 }
+                stepInstances.close();
                 // Cucumber report listener is not attached when test is executed via IntelliJ JUnit run configuration
                 if (context.getCucumberReportGeneratingListener() != null) {
                     context.getCucumberReportGeneratingListener().stepExecutionFinished(stepDescriptor, result);
@@ -278,14 +276,11 @@ public class ScenarioDescriptor extends AbstractTestDescriptor implements Node<P
             reportEntries.put("duration", String.valueOf(result.getDuration()));
             context.getExecutionListener().reportingEntryPublished(this, ReportEntry.from(reportEntries));
             // execute @AfterEachStep in case of successful step
-            for (Class<?> c : context.getTestClassesFromFirstStepsPackage()) {
-                for (Method method : AnnotationUtils.findAnnotatedMethods(c, AfterEachStep.class, TOP_DOWN)) {
-                    Preconditions.condition(method.getParameterCount() == 3,
-                            "@AfterEachStep method has wrong number of parameters");
-                    ReflectionUtils.invokeMethod(method, ReflectionUtils.newInstance(c), testContext,
-                            getScenario(), stepDescriptor.getStep());
-                }
+            for (LifecycleHooks.Hook hook : context.getLifecycleHooks().getAfterEachStep()) {
+                hook.invoke(context.getInjector(), stepInstances, testContext, testContext, getScenario(),
+                        stepDescriptor.getStep());
             }
+            stepInstances.close();
             // Cucumber report listener is not attached when test is executed via IntelliJ JUnit run configuration
             if (context.getCucumberReportGeneratingListener() != null) {
                 context.getCucumberReportGeneratingListener().stepExecutionFinished(stepDescriptor, result);
@@ -309,39 +304,43 @@ public class ScenarioDescriptor extends AbstractTestDescriptor implements Node<P
         boolean failedInAfterEachScenario = false;
 
         // execute @AfterEachScenario
-        for (Class<?> c : context.getTestClassesFromFirstStepsPackage()) {
-            for (Method method : AnnotationUtils.findAnnotatedMethods(c, AfterEachScenario.class, TOP_DOWN)) {
-                Instant endTime = null;
-                Instant startTime = Instant.now();
-                try {
-                    Preconditions.condition(method.getParameterCount() == 2,
-                            "@AfterEachScenario method has wrong number of parameters");
-                    Map<String, String> reportEntries = new HashMap<>();
-                    reportEntries.put("class", c.getCanonicalName() + "." + method.getName());
-                    reportEntries.put("scenario", this.getScenario().getName());
-                    reportEntries.put("status", "started");
-                    context.getExecutionListener().reportingEntryPublished(this, ReportEntry.from(reportEntries));
-                    ReflectionUtils.invokeMethod(method, ReflectionUtils.newInstance(c), testContext,
-                            getScenario());
-                } catch (Exception e) {
-                    endTime = Instant.now();
-                    Result result = new Result(Duration.between(startTime, endTime).toNanos(), Result.FAILED,
-                            e.getMessage());
-                    this.getScenario().setAfter(new Around(result));
-                    logger.severe(() -> "Exception in @AfterEachScenario");
-                    Map<String, String> reportEntries = new HashMap<>();
-                    reportEntries.put("class", c.getCanonicalName() + "." + method.getName());
-                    reportEntries.put("scenario", this.getScenario().getName());
-                    reportEntries.put("status", result.getStatus());
-                    reportEntries.put("duration", String.valueOf(result.getDuration()));
-                    context.getExecutionListener().reportingEntryPublished(this, ReportEntry.from(reportEntries));
-                    executionResult = TestExecutionResult.failed(e);
-                    failedException = e;
-                    failedInAfterEachScenario = true;
-                    context.getExecutionListener().executionFinished(this, executionResult);
-                }
+        for (LifecycleHooks.Hook hook : context.getLifecycleHooks().getAfterEachScenario()) {
+            Instant endTime = null;
+            Instant startTime = Instant.now();
+            try {
+                Map<String, String> reportEntries = new HashMap<>();
+                reportEntries.put("class", hook.getName());
+                reportEntries.put("scenario", this.getScenario().getName());
+                reportEntries.put("status", "started");
+                context.getExecutionListener().reportingEntryPublished(this, ReportEntry.from(reportEntries));
+                hook.invoke(context.getInjector(), scenarioInstances, testContext, testContext, getScenario());
+            } catch (Exception e) {
+                endTime = Instant.now();
+                Result result = new Result(Duration.between(startTime, endTime).toNanos(), Result.FAILED,
+                        e.getMessage());
+                this.getScenario().setAfter(new Around(result));
+                logger.severe(() -> "Exception in @AfterEachScenario");
+                Map<String, String> reportEntries = new HashMap<>();
+                reportEntries.put("class", hook.getName());
+                reportEntries.put("scenario", this.getScenario().getName());
+                reportEntries.put("status", result.getStatus());
+                reportEntries.put("duration", String.valueOf(result.getDuration()));
+                context.getExecutionListener().reportingEntryPublished(this, ReportEntry.from(reportEntries));
+                executionResult = TestExecutionResult.failed(e);
+                failedException = e;
+                failedInAfterEachScenario = true;
+                context.getExecutionListener().executionFinished(this, executionResult);
             }
         }
+        // The scoped instances may hold the TestContext which must not outlive the scenario
+        if (stepInstances != null) {
+            stepInstances.close();
+            stepInstances = null;
+        }
+        if (scenarioInstances != null) {
+            scenarioInstances.close();
+            scenarioInstances = null;
+        }
         // Cucumber report listener is not attached when test is executed via IntelliJ JUnit run configuration
         if (context.getCucumberReportGeneratingListener() != null) {
             context.getCucumberReportGeneratingListener().scenarioExecutionFinished(getScenario());
@@ -351,31 +350,6 @@ public class ScenarioDescriptor extends AbstractTestDescriptor implements Node<P
         }
     }
 
-    private Object getDeclaringClassForMethod(final Method method, Object... constructorParams) throws
-            InstantiationException, IllegalAccessException, NoSuchMethodException, IllegalArgumentException,
-            InvocationTargetException {
-        final Object declaringClassObject;
-        final String declaringClassName = method.getDeclaringClass().getName();
-        final List<Object> constructorParamsList = Arrays.asList(constructorParams);
-        final List<Class<?>> constructorParamTypesList = constructorParamsList.stream()
-                .map((object) -> object.getClass()).
-                        collect(Collectors.toList());
-        logger.fine(() -> String.format("[Execution] Step constructor param list size: %s", constructorParamsList.size()));
-        logger.fine(() -> String.format("[Execution] Step constructor param type list size: %s", constructorParamTypesList.size()));
-        logger.fine(() -> String.format("[Execution] Parameter types are: " + constructorParamsList
-                .stream()
-                .map(o -> o.getClass().getName())
-                .collect(Collectors.joining(","))));
-
-        // TODO: Try to use ReflectionUtils.findConstructors(method.getDeclaringClass(), ...) here
-        final Constructor<?> ctor = method.getDeclaringClass().getConstructor(constructorParamTypesList.toArray(
-                new Class<?>[constructorParamTypesList.size()]));
-        declaringClassObject = method.getDeclaringClass().cast(ctor.newInstance(constructorParamsList.toArray()));
-
-        classInstanceCache.put(declaringClassName, declaringClassObject);
-        return declaringClassObject;
-    }
-
     private String getThrowableStacktraceString(Throwable e) {
         StringWriter sw = new StringWriter();
         e.printStackTrace(new PrintWriter(sw));
@@ -10,11 +10,13 @@ public class StepDescriptor {
     private TestDescriptor parent;
     private String keyword;
     private String displayName;
+    private int line = 1;
     private MethodDescriptor methodDescriptor;
     private Step step = null;
 
     public void setKeyword(String keyword) {
-        this.keyword = keyword;
+        // There are only a few different keywords but every parsed step has its own copy
+        this.keyword = keyword == null ? null : keyword.intern();
     }
 
     public String getKeyword() {
@@ -29,6 +31,14 @@ public class StepDescriptor {
         return this.displayName;
     }
 
+    public void setLine(int line) {
+        this.line = line;
+    }
+
+    public int getLine() {
+        return this.line;
+    }
+
     public void setMethodDescriptor(MethodDescriptor methodDescriptor) {
         this.methodDescriptor = methodDescriptor;
     }
@@ -47,7 +57,7 @@ public class StepDescriptor {
 
     public final Step getStep() {
         if (step == null) {
-            step = new Step(getKeyword(), getDisplayName());
+            step = new Step(getKeyword(), getDisplayName(), getLine());
         }
         return step;
     }
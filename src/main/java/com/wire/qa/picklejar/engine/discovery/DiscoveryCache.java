@@ -0,0 +1,292 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wire.qa.picklejar.engine.descriptor.FeatureDescriptor;
+import com.wire.qa.picklejar.engine.descriptor.MethodDescriptor;
+import com.wire.qa.picklejar.engine.descriptor.ScenarioDescriptor;
+import com.wire.qa.picklejar.engine.descriptor.StepDescriptor;
+import org.junit.platform.commons.util.ReflectionUtils;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestTag;
+import org.junit.platform.engine.UniqueId;
+
+/**
+ * Persistent cache of discovered features. An entry is only used when the content of the feature file and the
+ * fingerprint of all step definitions in the {@link MethodCache} are unchanged since the entry was written.
+ */
+class DiscoveryCache {
+
+    private static final Logger logger = Logger.getLogger(DiscoveryCache.class.getName());
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Increase whenever the format of the entries changes
+    private static final int VERSION = 4;
+
+    private final Path cacheFile;
+    private final MethodCache methodCache;
+    private final TestTags testTags;
+    private final String stepsFingerprint;
+    private final Map<String, FeatureEntry> features;
+
+    private DiscoveryCache(Path cacheFile, MethodCache methodCache, TestTags testTags, String stepsFingerprint,
+                           Map<String, FeatureEntry> features) {
+        this.cacheFile = cacheFile;
+        this.methodCache = methodCache;
+        this.testTags = testTags;
+        this.stepsFingerprint = stepsFingerprint;
+        this.features = features;
+    }
+
+    static DiscoveryCache load(Path cacheFile, MethodCache methodCache, TestTags testTags) {
+        String stepsFingerprint = methodCache.getFingerprint();
+        Map<String, FeatureEntry> features = new ConcurrentHashMap<>();
+        if (Files.isRegularFile(cacheFile)) {
+            try {
+                CacheContent content = MAPPER.readValue(cacheFile.toFile(), CacheContent.class);
+                if (content.version != VERSION) {
+                    logger.info(() -> "[Discovery] Cache: Ignoring cache with outdated format " + cacheFile);
+                } else if (!stepsFingerprint.equals(content.stepsFingerprint)) {
+                    logger.info(() -> "[Discovery] Cache: Step definitions changed, ignoring cache " + cacheFile);
+                } else {
+                    features.putAll(content.features);
+                }
+            } catch (IOException e) {
+                logger.warning(() -> String.format("[Discovery] Cache: Could not read %s: %s", cacheFile,
+                        e.getMessage()));
+            }
+        }
+        logger.info(() -> String.format("[Discovery] Cache: Loaded %d feature(s) from %s", features.size(), cacheFile));
+        return new DiscoveryCache(cacheFile, methodCache, testTags, stepsFingerprint, features);
+    }
+
+    void save() {
+        // Drop entries of feature files which were deleted in the meantime
+        features.keySet().removeIf(uri -> !isFile(uri));
+        CacheContent content = new CacheContent();
+        content.version = VERSION;
+        content.stepsFingerprint = stepsFingerprint;
+        content.features = features;
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            Path temporaryFile = Files.createTempFile(cacheFile.toAbsolutePath().getParent(),
+                    cacheFile.getFileName().toString(), ".tmp");
+            MAPPER.writeValue(temporaryFile.toFile(), content);
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+            logger.info(() -> String.format("[Discovery] Cache: Stored %d feature(s) in %s", features.size(), cacheFile));
+        } catch (IOException e) {
+            logger.warning(() -> String.format("[Discovery] Cache: Could not write %s: %s", cacheFile, e.getMessage()));
+        }
+    }
+
+    /**
+     * Rebuilds the scenarios of a feature from the cache. The returned descriptor has no parent yet.
+     */
+    Optional<FeatureDescriptor> get(Path file, String contentHash, UniqueId uniqueId, String relativeFolder) {
+        FeatureEntry entry = features.get(toKey(file));
+        if (entry == null || !entry.contentHash.equals(contentHash)) {
+            return Optional.empty();
+        }
+        FeatureDescriptor featureDescriptor = new FeatureDescriptor(uniqueId, entry.name, file, relativeFolder);
+        featureDescriptor.setTags(testTags.of(entry.tags));
+        List<ScenarioDescriptor> scenarioDescriptors = new ArrayList<>();
+        for (ScenarioEntry scenarioEntry : entry.scenarios) {
+            ScenarioDescriptor scenarioDescriptor = scenarioEntry.exampleNumber == null
+                    ? new ScenarioDescriptor(featureDescriptor.getUniqueId(), scenarioEntry.name, file)
+                    : new ScenarioDescriptor(featureDescriptor.getUniqueId(), scenarioEntry.name,
+                    scenarioEntry.exampleNumber, file);
+            scenarioDescriptor.setTags(testTags.of(scenarioEntry.tags));
+            scenarioDescriptor.setLine(scenarioEntry.line);
+            List<StepDescriptor> stepDescriptors = new ArrayList<>();
+            for (StepEntry stepEntry : scenarioEntry.steps) {
+                Optional<MethodDescriptor> methodDescriptor = toMethodDescriptor(stepEntry);
+                if (methodDescriptor.isEmpty()) {
+                    logger.fine(() -> String.format("[Discovery] Cache: Cannot restore method %s.%s, rediscover %s",
+                            stepEntry.className, stepEntry.methodName, file.getFileName()));
+                    return Optional.empty();
+                }
+                StepDescriptor stepDescriptor = new StepDescriptor();
+                stepDescriptor.setKeyword(stepEntry.keyword);
+                stepDescriptor.setDisplayName(stepEntry.text);
+                stepDescriptor.setLine(stepEntry.line);
+                stepDescriptor.setMethodDescriptor(methodDescriptor.get());
+                stepDescriptor.setParent(scenarioDescriptor);
+                stepDescriptors.add(stepDescriptor);
+            }
+            scenarioDescriptor.setStepDescriptors(stepDescriptors);
+            scenarioDescriptors.add(scenarioDescriptor);
+        }
+        scenarioDescriptors.forEach(featureDescriptor::addChild);
+        return Optional.of(featureDescriptor);
+    }
+
+    void put(Path file, String contentHash, String featureName, FeatureDescriptor featureDescriptor) {
+        FeatureEntry entry = new FeatureEntry();
+        entry.contentHash = contentHash;
+        entry.name = featureName;
+        entry.tags = toTagNames(featureDescriptor);
+        entry.scenarios = new ArrayList<>();
+        for (TestDescriptor child : featureDescriptor.getChildren()) {
+            ScenarioDescriptor scenarioDescriptor = (ScenarioDescriptor) child;
+            ScenarioEntry scenarioEntry = new ScenarioEntry();
+            UniqueId.Segment lastSegment = scenarioDescriptor.getUniqueId().getLastSegment();
+            if (lastSegment.getType().equals("Example")) {
+                scenarioEntry.exampleNumber = Integer.parseInt(lastSegment.getValue());
+                scenarioEntry.name = scenarioDescriptor.getUniqueId().removeLastSegment().getLastSegment().getValue();
+            } else {
+                scenarioEntry.name = lastSegment.getValue();
+            }
+            scenarioEntry.tags = toTagNames(scenarioDescriptor);
+            scenarioEntry.line = scenarioDescriptor.getLine();
+            scenarioEntry.steps = new ArrayList<>();
+            for (StepDescriptor stepDescriptor : scenarioDescriptor.getStepDescriptors()) {
+                Method method = stepDescriptor.getMethodDescriptor().getMethod();
+                StepEntry stepEntry = new StepEntry();
+                stepEntry.keyword = stepDescriptor.getKeyword();
+                stepEntry.text = stepDescriptor.getDisplayName();
+                stepEntry.line = stepDescriptor.getLine();
+                stepEntry.className = method.getDeclaringClass().getName();
+                stepEntry.methodName = method.getName();
+                stepEntry.parameterTypes = Arrays.stream(method.getParameterTypes())
+                        .map(Class::getName)
+                        .collect(Collectors.toList());
+                stepEntry.arguments = Arrays.asList(stepDescriptor.getMethodDescriptor().getArguments());
+                scenarioEntry.steps.add(stepEntry);
+            }
+            entry.scenarios.add(scenarioEntry);
+        }
+        features.put(toKey(file), entry);
+    }
+
+    // Feature files are identified by their URI because they can also be located inside of a JAR
+    private static String toKey(Path file) {
+        return file.toAbsolutePath().toUri().toString();
+    }
+
+    private static boolean isFile(String uri) {
+        try {
+            return Files.isRegularFile(Paths.get(URI.create(uri)));
+        } catch (IllegalArgumentException | FileSystemNotFoundException e) {
+            // The zip file system of a JAR which was not searched in this run is not open
+            return false;
+        }
+    }
+
+    static String hash(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+
+    /*
+    The captured texts are stored instead of the converted parameters because parameters of custom types cannot be
+    restored from JSON. They are converted again with the conversions of the MethodCache.
+     */
+    private Optional<MethodDescriptor> toMethodDescriptor(StepEntry stepEntry) {
+        Optional<Method> method = ReflectionUtils.tryToLoadClass(stepEntry.className).toOptional()
+                .flatMap(clazz -> ReflectionUtils.findMethod(clazz, stepEntry.methodName,
+                        String.join(",", stepEntry.parameterTypes)));
+        if (method.isEmpty()) {
+            return Optional.empty();
+        }
+        ParameterConverters.Conversion[] conversions = methodCache.getConversions(method.get());
+        String[] arguments = stepEntry.arguments.toArray(new String[0]);
+        if (arguments.length != conversions.length) {
+            return Optional.empty();
+        }
+        Object[] parameters = new Object[conversions.length];
+        for (int i = 0; i < conversions.length; i++) {
+            try {
+                parameters[i] = conversions[i].convert(arguments[i]);
+            } catch (Exception e) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(new MethodDescriptor(method.get(), parameters, arguments));
+    }
+
+    private static List<String> toTagNames(TestDescriptor descriptor) {
+        return descriptor.getTags().stream().map(TestTag::getName).sorted().collect(Collectors.toList());
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    private static class CacheContent {
+        @JsonProperty("version")
+        int version;
+        @JsonProperty("stepsFingerprint")
+        String stepsFingerprint;
+        @JsonProperty("features")
+        Map<String, FeatureEntry> features;
+    }
+
+    private static class FeatureEntry {
+        @JsonProperty("contentHash")
+        String contentHash;
+        @JsonProperty("name")
+        String name;
+        @JsonProperty("tags")
+        List<String> tags;
+        @JsonProperty("scenarios")
+        List<ScenarioEntry> scenarios;
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private static class ScenarioEntry {
+        @JsonProperty("name")
+        String name;
+        @JsonProperty("exampleNumber")
+        Integer exampleNumber;
+        @JsonProperty("line")
+        int line;
+        @JsonProperty("tags")
+        List<String> tags;
+        @JsonProperty("steps")
+        List<StepEntry> steps;
+    }
+
+    private static class StepEntry {
+        @JsonProperty("keyword")
+        String keyword;
+        @JsonProperty("text")
+        String text;
+        @JsonProperty("line")
+        int line;
+        @JsonProperty("className")
+        String className;
+        @JsonProperty("methodName")
+        String methodName;
+        @JsonProperty("parameterTypes")
+        List<String> parameterTypes;
+        @JsonProperty("arguments")
+        List<String> arguments;
+    }
+}
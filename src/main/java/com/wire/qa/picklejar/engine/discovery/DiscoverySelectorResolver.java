@@ -1,29 +1,48 @@
 package com.wire.qa.picklejar.engine.discovery;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
+import com.wire.qa.picklejar.engine.Injector;
+import com.wire.qa.picklejar.engine.LifecycleHooks;
+import com.wire.qa.picklejar.engine.PicklejarConfiguration;
+
 import com.wire.qa.picklejar.engine.descriptor.PicklejarEngineDescriptor;
 import org.junit.platform.engine.DiscoveryFilter;
 import org.junit.platform.engine.DiscoverySelector;
 import org.junit.platform.engine.EngineDiscoveryRequest;
-import org.junit.platform.engine.TestDescriptor;
 import org.junit.platform.engine.support.discovery.EngineDiscoveryRequestResolver;
 
 public class DiscoverySelectorResolver {
 
     private static final Logger logger = Logger.getLogger(DiscoverySelectorResolver.class.getName());
 
+    private final StepClassesCache stepClassesCache;
     private MethodCache methodCache = null;
+    private DiscoveryCache discoveryCache = null;
+    private StepResolutions stepResolutions = null;
+    private TestTags testTags = null;
+    private DiscoveryStatistics statistics = DiscoveryStatistics.DISABLED;
 
     public DiscoverySelectorResolver() {
+        this(new StepClassesCache());
+    }
 
+    public DiscoverySelectorResolver(StepClassesCache stepClassesCache) {
+        this.stepClassesCache = stepClassesCache;
     }
 
     private final EngineDiscoveryRequestResolver<PicklejarEngineDescriptor> resolver = EngineDiscoveryRequestResolver.<PicklejarEngineDescriptor>builder()
-            .addSelectorResolver(context -> new FeatureSelectorResolver(context.getEngineDescriptor().getUniqueId(), context.getEngineDescriptor().getConfiguration(), methodCache.getCache()))
-            .addSelectorResolver(context -> new ScenarioSelectorResolver(context.getEngineDescriptor().getUniqueId(), context.getEngineDescriptor().getConfiguration(), methodCache.getCache()))
-            .addTestDescriptorVisitor(context -> TestDescriptor::prune)
+            .addSelectorResolver(context -> new FeatureSelectorResolver(context.getEngineDescriptor().getUniqueId(), context.getEngineDescriptor().getConfiguration(), methodCache, stepResolutions, testTags, discoveryCache, statistics))
+            .addSelectorResolver(context -> new ScenarioSelectorResolver(context.getEngineDescriptor().getUniqueId(), context.getEngineDescriptor().getConfiguration(), methodCache, stepResolutions, testTags, statistics))
+            .addTestDescriptorVisitor(context -> descriptor -> {
+                long start = statistics.start();
+                descriptor.prune();
+                statistics.stop(DiscoveryStatistics.Phase.PRUNING, start);
+            })
             .build();
 
     public void discover(EngineDiscoveryRequest request, PicklejarEngineDescriptor engineDescriptor) {
@@ -35,13 +54,59 @@ public class DiscoverySelectorResolver {
         for (DiscoveryFilter filter : request.getFiltersByType(DiscoveryFilter.class)) {
             logger.fine(() -> "[Discovery] Using (deprecated) Filter: " + filter.toString());
         }
+        PicklejarConfiguration configuration = engineDescriptor.getConfiguration();
+        statistics = configuration.isDiscoveryStatisticsEnabled()
+                ? new DiscoveryStatistics(true)
+                : DiscoveryStatistics.DISABLED;
+        long start = System.nanoTime();
         try {
-            methodCache = new MethodCache(engineDescriptor.getConfiguration().getStepsPackageNames());
+            methodCache = stepClassesCache.getMethodCache(engineDescriptor.getConfiguration());
         } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
             e.printStackTrace();
         }
+        LifecycleHooks lifecycleHooks = stepClassesCache.getLifecycleHooks(configuration);
+        engineDescriptor.setLifecycleHooks(lifecycleHooks);
+        engineDescriptor.setInjector(createInjector(methodCache, lifecycleHooks));
+        statistics.stop(DiscoveryStatistics.Phase.STEP_DEFINITIONS, start);
+        if (methodCache != null) {
+            statistics.count(DiscoveryStatistics.Counter.STEP_DEFINITIONS, methodCache.getCache().size());
+        }
+        stepResolutions = new StepResolutions();
+        testTags = new TestTags();
+        if (engineDescriptor.getConfiguration().isDiscoveryCacheEnabled()) {
+            discoveryCache = DiscoveryCache.load(engineDescriptor.getConfiguration().getDiscoveryCacheFile(),
+                    methodCache, testTags);
+        }
         resolver.resolve(request, engineDescriptor);
+        if (discoveryCache != null) {
+            discoveryCache.save();
+        }
+        long totalNanos = System.nanoTime() - start;
+        if (statistics.isEnabled()) {
+            logger.info(() -> String.format("[Discovery] Statistics: %d feature(s), %d scenario(s) and %d step(s) in %d ms",
+                    statistics.get(DiscoveryStatistics.Counter.FEATURES),
+                    statistics.get(DiscoveryStatistics.Counter.SCENARIOS),
+                    statistics.get(DiscoveryStatistics.Counter.STEPS),
+                    TimeUnit.NANOSECONDS.toMillis(totalNanos)));
+            statistics.write(configuration.getDiscoveryStatisticsFile(), totalNanos);
+        }
     }
 
+    /*
+    Plans the constructors of all step and lifecycle classes, so misconfigured classes are found before execution. The
+    injector is created for every discovery and only used by the execution of its engine descriptor, so nothing of it
+    outlives the run.
+     */
+    private static Injector createInjector(MethodCache methodCache, LifecycleHooks lifecycleHooks) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        if (methodCache != null) {
+            methodCache.getCache().values().forEach(method -> classes.add(method.getDeclaringClass()));
+        }
+        classes.addAll(lifecycleHooks.getClasses());
+        Injector injector = Injector.create(classes);
+        logger.info(() -> String.format("[Discovery] Injection: Planned %d class(es)",
+                injector.getPlannedClassCount()));
+        return injector;
+    }
 
 }
@@ -0,0 +1,194 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wire.qa.picklejar.engine.annotations.AnnotationPattern;
+
+/**
+ * Timers and counters of one discovery which are written as JSON profile when enabled. A disabled instance does not
+ * even read the clock, so the resolvers can call it unconditionally.
+ * <p>
+ * The time of a phase is summed over all threads, so with parallel discovery the phases can add up to more than
+ * the total time.
+ */
+final class DiscoveryStatistics {
+
+    private static final Logger logger = Logger.getLogger(DiscoveryStatistics.class.getName());
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int TOP_ENTRIES = 10;
+
+    static final DiscoveryStatistics DISABLED = new DiscoveryStatistics(false);
+
+    enum Phase {
+        STEP_DEFINITIONS("stepDefinitions"),
+        FILE_WALK("fileWalk"),
+        READ("read"),
+        CACHE("cache"),
+        PARSE("parse"),
+        STEP_MATCHING("stepMatching"),
+        DUPLICATE_CHECK("duplicateCheck"),
+        PRUNING("pruning");
+
+        private final String key;
+
+        Phase(String key) {
+            this.key = key;
+        }
+    }
+
+    enum Counter {
+        STEP_DEFINITIONS("stepDefinitions"),
+        FEATURES("features"),
+        CACHED_FEATURES("cachedFeatures"),
+        SCENARIOS("scenarios"),
+        STEPS("steps"),
+        // Distinct step texts, all other steps reuse the resolution of the same text
+        STEP_RESOLUTIONS("stepResolutions"),
+        REGEX_EVALUATIONS("regexEvaluations"),
+        MATCH_HITS("matchHits"),
+        MATCH_MISSES("matchMisses"),
+        CONVERSIONS("conversions"),
+        CONVERSION_FAILURES("conversionFailures");
+
+        private final String key;
+
+        Counter(String key) {
+            this.key = key;
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<Phase, LongAdder> phases = new EnumMap<>(Phase.class);
+    private final Map<Counter, LongAdder> counters = new EnumMap<>(Counter.class);
+    private final Map<Path, Long> features = new ConcurrentHashMap<>();
+    private final Map<String, PatternCost> patterns = new ConcurrentHashMap<>();
+
+    DiscoveryStatistics(boolean enabled) {
+        this.enabled = enabled;
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new LongAdder());
+        }
+        for (Counter counter : Counter.values()) {
+            counters.put(counter, new LongAdder());
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    // Returns the start time for stop() and similar methods
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    void stop(Phase phase, long start) {
+        if (enabled) {
+            phases.get(phase).add(System.nanoTime() - start);
+        }
+    }
+
+    void count(Counter counter) {
+        count(counter, 1);
+    }
+
+    void count(Counter counter, long value) {
+        if (enabled) {
+            counters.get(counter).add(value);
+        }
+    }
+
+    void featureDiscovered(Path file, long start) {
+        if (enabled) {
+            features.merge(file, System.nanoTime() - start, Long::sum);
+        }
+    }
+
+    void patternEvaluated(AnnotationPattern pattern, long start, boolean matched) {
+        if (enabled) {
+            long nanos = System.nanoTime() - start;
+            counters.get(Counter.REGEX_EVALUATIONS).increment();
+            counters.get(matched ? Counter.MATCH_HITS : Counter.MATCH_MISSES).increment();
+            PatternCost cost = patterns.computeIfAbsent(pattern.getAnnotation(), key -> new PatternCost());
+            cost.evaluations.increment();
+            cost.nanos.add(nanos);
+            if (matched) {
+                cost.hits.increment();
+            }
+        }
+    }
+
+    long get(Counter counter) {
+        return counters.get(counter).sum();
+    }
+
+    void write(Path file, long totalNanos) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("totalMillis", toMillis(totalNanos));
+        Map<String, Object> phaseMillis = new LinkedHashMap<>();
+        phases.forEach((phase, nanos) -> phaseMillis.put(phase.key, toMillis(nanos.sum())));
+        profile.put("phaseMillis", phaseMillis);
+        Map<String, Object> counterValues = new LinkedHashMap<>();
+        counters.forEach((counter, value) -> counterValues.put(counter.key, value.sum()));
+        profile.put("counters", counterValues);
+        profile.put("slowestFeatures", features.entrySet().stream()
+                .sorted(Map.Entry.<Path, Long>comparingByValue().reversed())
+                .limit(TOP_ENTRIES)
+                .map(entry -> {
+                    Map<String, Object> feature = new LinkedHashMap<>();
+                    feature.put("file", entry.getKey().toAbsolutePath().toUri().toString());
+                    feature.put("millis", toMillis(entry.getValue()));
+                    return feature;
+                })
+                .collect(Collectors.toList()));
+        profile.put("mostExpensivePatterns", getMostExpensivePatterns());
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), profile);
+            logger.info(() -> "[Discovery] Statistics: Written to " + file);
+        } catch (IOException e) {
+            logger.warning(() -> String.format("[Discovery] Statistics: Could not write %s: %s", file, e.getMessage()));
+        }
+    }
+
+    private List<Map<String, Object>> getMostExpensivePatterns() {
+        return patterns.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, PatternCost> entry) -> entry.getValue().nanos.sum())
+                        .reversed())
+                .limit(TOP_ENTRIES)
+                .map(entry -> {
+                    Map<String, Object> pattern = new LinkedHashMap<>();
+                    pattern.put("pattern", entry.getKey());
+                    pattern.put("evaluations", entry.getValue().evaluations.sum());
+                    pattern.put("hits", entry.getValue().hits.sum());
+                    pattern.put("millis", toMillis(entry.getValue().nanos.sum()));
+                    return pattern;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static class PatternCost {
+        private final LongAdder evaluations = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+}
@@ -1,25 +1,28 @@
 package com.wire.qa.picklejar.engine.discovery;
 
-import java.io.File;
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.lang.reflect.Method;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Logger;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import com.wire.qa.picklejar.engine.PicklejarConfiguration;
-import com.wire.qa.picklejar.engine.annotations.AnnotationPattern;
 import com.wire.qa.picklejar.engine.descriptor.FeatureDescriptor;
 import com.wire.qa.picklejar.engine.descriptor.ScenarioDescriptor;
 import com.wire.qa.picklejar.engine.exception.DiscoveryException;
-import com.wire.qa.picklejar.engine.exception.ExceptionHelper;
 import gherkin.AstBuilder;
 import gherkin.Parser;
 import gherkin.ast.Feature;
 import gherkin.ast.ScenarioDefinition;
 import gherkin.ast.Tag;
+import org.junit.platform.commons.JUnitException;
 import org.junit.platform.commons.PreconditionViolationException;
 import org.junit.platform.commons.util.Preconditions;
 import org.junit.platform.commons.util.StringUtils;
@@ -36,17 +39,38 @@ import static org.junit.platform.engine.support.discovery.SelectorResolver.Resol
 public class FeatureSelectorResolver implements SelectorResolver {
 
     private static final Logger logger = Logger.getLogger(FeatureSelectorResolver.class.getName());
-    private static final Parser<Feature> PARSER = new Parser<>(new AstBuilder());
+    private static final String FEATURE_KEYWORD = "Feature:";
+    private static final Pattern LANGUAGE_HEADER = Pattern.compile("#\\s*language\\s*:.*");
+    // The gherkin parser keeps state while parsing so every discovery thread gets its own instance
+    private static final ThreadLocal<Parser<Feature>> PARSER = ThreadLocal.withInitial(() -> new Parser<>(new AstBuilder()));
 
     protected final UniqueId uniqueId;
     protected final PicklejarConfiguration configuration;
-    protected final Map<AnnotationPattern, Method> methodCache;
+    protected final MethodCache methodCache;
+    protected final StepResolutions stepResolutions;
+    private final TestTags testTags;
     protected final FeatureFileFilter fileFilter = new FeatureFileFilter();
-
-    FeatureSelectorResolver(UniqueId uniqueId, PicklejarConfiguration configuration, Map<AnnotationPattern, Method> methodCache) {
+    protected final ScenarioSelectorResolver scenarioSelectorResolver;
+    // Only set when the discovery cache is enabled
+    private final DiscoveryCache discoveryCache;
+    private final DiscoveryStatistics statistics;
+    private volatile Set<Path> featuresPackagePaths = null;
+    // Only used when resolving UniqueIdSelectors
+    private Map<String, List<Path>> featureFileIndex = null;
+    private final Map<Path, FeatureDescriptor> discoveredFeatures = new HashMap<>();
+
+    FeatureSelectorResolver(UniqueId uniqueId, PicklejarConfiguration configuration, MethodCache methodCache,
+                            StepResolutions stepResolutions, TestTags testTags, DiscoveryCache discoveryCache,
+                            DiscoveryStatistics statistics) {
         this.uniqueId = uniqueId;
         this.configuration = configuration;
         this.methodCache = methodCache;
+        this.stepResolutions = stepResolutions;
+        this.testTags = testTags;
+        this.discoveryCache = discoveryCache;
+        this.statistics = statistics;
+        this.scenarioSelectorResolver = new ScenarioSelectorResolver(uniqueId, configuration, methodCache,
+                stepResolutions, testTags, statistics);
     }
 
     @Override
@@ -63,34 +87,120 @@ public class FeatureSelectorResolver implements SelectorResolver {
         String finalPackageName = packageName;
         logger.info(() -> String.format("[Discovery] Features: Searching package %s", finalPackageName));
 
-        Collection<File> featureFiles = ResourceSeeker.scanForFilesInPackage(packageName, fileFilter);
-
-        Preconditions.condition(featureFiles.size() > 0,
-                String.format("Could not find files with extension '.%s' in any provided package: %s",
-                        FeatureFileFilter.EXTENSION,
-                        packageName));
-
-        logger.info(() -> String.format("[Discovery] Features: Found %s feature(s)", featureFiles.size()));
+        List<FeatureDescriptor> featureDescriptors = configuration.isParallelDiscoveryEnabled()
+                ? discoverFeaturesInParallel(packageName)
+                : discoverFeatures(packageName);
 
         Set<Match> matches = new HashSet<>();
 
-        for (File featureFile : featureFiles) {
-            matches.addAll(discoverScenarios(featureFile, context));
+        for (FeatureDescriptor featureDescriptor : featureDescriptors) {
+            matches.addAll(addToParent(featureDescriptor, context));
         }
         return matches.isEmpty() ? unresolved() : Resolution.matches(matches);
     }
 
     @Override
     public Resolution resolve(FileSelector selector, Context context) {
-        return Resolution.matches(discoverScenarios(selector.getFile(), context));
+        return Resolution.matches(addToParent(discoverFeature(selector.getPath()), context));
     }
 
+    /*
+    Only the feature files whose relative folder and name match the feature segment of the selected UniqueId are
+    parsed. Every feature is discovered at most once per discovery request, no matter how many of its scenarios are
+    selected.
+     */
     @Override
     public Resolution resolve(UniqueIdSelector selector, Context context) {
-        String packageName = configuration.getFeaturesPackageName();
-        logger.info(() -> String.format("[Discovery] Features: Searching package %s", packageName));
+        UniqueId selectedId = selector.getUniqueId();
+        logger.info(() -> "[Discovery] Features: Filter by UniqueId: " + selectedId);
+        Optional<String> featureSegmentValue = getFeatureSegmentValue(selectedId);
+        if (featureSegmentValue.isEmpty()) {
+            return unresolved();
+        }
 
-        Collection<File> featureFiles = ResourceSeeker.scanForFilesInPackage(packageName, fileFilter);
+        Set<Match> matches = new HashSet<>();
+        for (Path featureFile : getFeatureFileIndex().getOrDefault(featureSegmentValue.get(), Collections.emptyList())) {
+            FeatureDescriptor featureDescriptor = discoveredFeatures.computeIfAbsent(featureFile, this::discoverFeature);
+            context.addToParent(parent -> Optional.of(featureDescriptor))
+                    .flatMap(descriptor -> descriptor.findByUniqueId(selectedId))
+                    .ifPresent(descriptor -> matches.add(Match.exact(descriptor)));
+        }
+        return matches.isEmpty() ? unresolved() : Resolution.matches(matches);
+    }
+
+    private Optional<String> getFeatureSegmentValue(UniqueId selectedId) {
+        int featureSegmentIndex = uniqueId.getSegments().size();
+        if (!selectedId.hasPrefix(uniqueId) || selectedId.getSegments().size() <= featureSegmentIndex) {
+            return Optional.empty();
+        }
+        UniqueId.Segment featureSegment = selectedId.getSegments().get(featureSegmentIndex);
+        if (!featureSegment.getType().equals(FeatureDescriptor.SEGMENT_TYPE)) {
+            return Optional.empty();
+        }
+        return Optional.of(featureSegment.getValue());
+    }
+
+    // Maps the value of the feature segment of a UniqueId (relative folder and normalized name) to the feature files
+    private Map<String, List<Path>> getFeatureFileIndex() {
+        if (featureFileIndex == null) {
+            String packageName = configuration.getFeaturesPackageName();
+            logger.info(() -> String.format("[Discovery] Features: Searching package %s", packageName));
+
+            long start = statistics.start();
+            Collection<Path> featureFiles = ResourceSeeker.scanForFilesInPackage(packageName, fileFilter);
+            statistics.stop(DiscoveryStatistics.Phase.FILE_WALK, start);
+
+            Preconditions.condition(featureFiles.size() > 0,
+                    String.format("Could not find files with extension '.%s' in any provided package: %s",
+                            FeatureFileFilter.EXTENSION,
+                            packageName));
+
+            logger.info(() -> String.format("[Discovery] Features: Found %s feature(s)", featureFiles.size()));
+
+            featureFileIndex = new HashMap<>();
+            for (Path featureFile : featureFiles) {
+                String featureSegmentValue = getRelativeFeatureFolder(featureFile, getFeaturesPackagePaths())
+                        + readFeatureName(featureFile);
+                featureFileIndex.computeIfAbsent(featureSegmentValue, key -> new ArrayList<>()).add(featureFile);
+            }
+        }
+        return featureFileIndex;
+    }
+
+    // Reads the normalized feature name from the header of the file. Only files without English "Feature:" keyword
+    // (e.g. other languages or keyword synonyms) are parsed completely.
+    private static String readFeatureName(Path file) {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("@")) {
+                    continue;
+                }
+                if (line.startsWith("#")) {
+                    if (LANGUAGE_HEADER.matcher(line).matches()) {
+                        break;
+                    }
+                    continue;
+                }
+                if (line.startsWith(FEATURE_KEYWORD)) {
+                    return normalizeName(line.substring(FEATURE_KEYWORD.length()));
+                }
+                break;
+            }
+            Feature feature = PARSER.get().parse(readFile(file));
+            Preconditions.notNull(feature.getName(), String.format("Feature is missing name in file: %s", file.toAbsolutePath()));
+            return normalizeName(feature).getName();
+        } catch (IOException e) {
+            throw new PreconditionViolationException(
+                    String.format("Could not read file %s: %s", file.getFileName(), e.getMessage()));
+        }
+    }
+
+    private List<FeatureDescriptor> discoverFeatures(String packageName) {
+        long start = statistics.start();
+        Collection<Path> featureFiles = ResourceSeeker.scanForFilesInPackage(packageName, fileFilter);
+        statistics.stop(DiscoveryStatistics.Phase.FILE_WALK, start);
 
         Preconditions.condition(featureFiles.size() > 0,
                 String.format("Could not find files with extension '.%s' in any provided package: %s",
@@ -99,60 +209,147 @@ public class FeatureSelectorResolver implements SelectorResolver {
 
         logger.info(() -> String.format("[Discovery] Features: Found %s feature(s)", featureFiles.size()));
 
-        Set<Match> scenarios = new HashSet<>();
+        List<FeatureDescriptor> featureDescriptors = new ArrayList<>();
+        for (Path featureFile : featureFiles) {
+            featureDescriptors.add(discoverFeature(featureFile));
+        }
+        return featureDescriptors;
+    }
 
-        for (File featureFile : featureFiles) {
-            scenarios.addAll(discoverScenarios(featureFile, context));
+    /*
+    Works as a pipeline: While the resource directories are still walked every found feature file is handed over to
+    the pool which reads, parses and resolves the steps of it. The results are collected in the order of the walk so
+    that the resulting tree and the reported exception (first failing feature file) are the same as in sequential mode.
+     */
+    private List<FeatureDescriptor> discoverFeaturesInParallel(String packageName) {
+        int parallelism = configuration.getDiscoveryParallelism();
+        logger.info(() -> String.format("[Discovery] Features: Using parallel discovery with parallelism = %d",
+                parallelism));
+        // Resolve package folders once before starting the workers instead of once per feature file
+        getFeaturesPackagePaths();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new DiscoveryThreadFactory("picklejar-discovery-"));
+        List<Future<FeatureDescriptor>> futures = new ArrayList<>();
+        try {
+            // Includes handing over the files to the pool but not the discovery of them
+            long start = statistics.start();
+            ResourceSeeker.scanForFilesInPackage(packageName, fileFilter,
+                    featureFile -> futures.add(executor.submit(() -> discoverFeature(featureFile))));
+            statistics.stop(DiscoveryStatistics.Phase.FILE_WALK, start);
+
+            Preconditions.condition(futures.size() > 0,
+                    String.format("Could not find files with extension '.%s' in any provided package: %s",
+                            FeatureFileFilter.EXTENSION,
+                            packageName));
+
+            logger.info(() -> String.format("[Discovery] Features: Found %s feature(s)", futures.size()));
+
+            List<FeatureDescriptor> featureDescriptors = new ArrayList<>();
+            for (Future<FeatureDescriptor> future : futures) {
+                featureDescriptors.add(getDiscoveredFeature(future));
+            }
+            return featureDescriptors;
+        } finally {
+            executor.shutdownNow();
         }
-        logger.info(() -> "[Discovery] Features: Filter by UniqueId: " + selector.getUniqueId());
-        // Recursively go through children
-        Set<TestDescriptor> descriptors = scenarios.stream().map(Match::getTestDescriptor).collect(Collectors.toSet());
+    }
 
-        Optional<? extends TestDescriptor> match = descriptors.stream().findFirst().get().findByUniqueId(selector.getUniqueId());
-        Set<Match> matches = new HashSet<>();
-        match.ifPresent(i -> matches.add(Match.exact(i)));
+    private static FeatureDescriptor getDiscoveredFeature(Future<FeatureDescriptor> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JUnitException("[Discovery] Interrupted while waiting for parallel discovery", e);
+        } catch (ExecutionException e) {
+            // Rethrow the original exception so that errors are reported the same way as in sequential mode
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new JUnitException("[Discovery] Parallel discovery failed", e.getCause());
+        }
+    }
 
-        return matches.isEmpty() ? unresolved() : Resolution.matches(matches);
+    private FeatureDescriptor discoverFeature(Path file) {
+        long start = statistics.start();
+        FeatureDescriptor featureDescriptor = discoverFeatureDescriptor(file);
+        statistics.featureDiscovered(file, start);
+        statistics.count(DiscoveryStatistics.Counter.FEATURES);
+        if (statistics.isEnabled()) {
+            for (TestDescriptor child : featureDescriptor.getChildren()) {
+                statistics.count(DiscoveryStatistics.Counter.SCENARIOS);
+                statistics.count(DiscoveryStatistics.Counter.STEPS,
+                        ((ScenarioDescriptor) child).getStepDescriptors().size());
+            }
+        }
+        return featureDescriptor;
     }
 
-    private Set<Match> discoverScenarios(File file, Context context) {
+    private FeatureDescriptor discoverFeatureDescriptor(Path file) {
         // TODO: Maybe return new scenario selectors instead of matches?
-        logger.fine(() -> String.format("[Discovery] Scenarios: Searching scenarios in file %s", file.getAbsolutePath()));
+        logger.fine(() -> String.format("[Discovery] Scenarios: Searching scenarios in file %s", file.toAbsolutePath()));
 
         // Check for file existence and correct file extension
-        Preconditions.condition(file.exists(), String.format("Cannot find feature file: %s", file.getAbsolutePath()));
-        Preconditions.condition(fileFilter.accept(null, file.getName()),
+        Preconditions.condition(Files.exists(file), String.format("Cannot find feature file: %s", file.toAbsolutePath()));
+        Preconditions.condition(fileFilter.accept(null, file.getFileName().toString()),
                 String.format("Supplied feature file does not end with extension '.%s': %s",
                         FeatureFileFilter.EXTENSION,
-                        file.getAbsolutePath()));
+                        file.toAbsolutePath()));
 
-        Feature feature = null;
+        String content = null;
 
+        long start = statistics.start();
         try {
-            feature = PARSER.parse(readFile(file));
+            content = readFile(file);
         } catch (IOException e) {
             throw new PreconditionViolationException(
-                    String.format("Could not read file %s: %s", file.getName(), e.getMessage()));
+                    String.format("Could not read file %s: %s", file.getFileName(), e.getMessage()));
+        }
+        statistics.stop(DiscoveryStatistics.Phase.READ, start);
+
+        String contentHash = null;
+        if (discoveryCache != null) {
+            start = statistics.start();
+            contentHash = DiscoveryCache.hash(content);
+            Optional<FeatureDescriptor> cachedFeature = discoveryCache.get(file, contentHash, uniqueId,
+                    getRelativeFeatureFolder(file, getFeaturesPackagePaths()));
+            statistics.stop(DiscoveryStatistics.Phase.CACHE, start);
+            if (cachedFeature.isPresent()) {
+                statistics.count(DiscoveryStatistics.Counter.CACHED_FEATURES);
+                // The cache always contains all scenarios of a feature
+                removeExcludedScenarios(cachedFeature.get());
+                logger.info(String.format("[Discovery] Scenarios: Found %s scenario(s) in feature \"%s\" (cached)",
+                        cachedFeature.get().getChildren().size(),
+                        cachedFeature.get().getDisplayName()));
+                return cachedFeature.get();
+            }
         }
 
+        start = statistics.start();
+        Feature feature = PARSER.get().parse(content);
+        statistics.stop(DiscoveryStatistics.Phase.PARSE, start);
+
         // Check feature naming
         Preconditions.notNull(feature, "");
-        Preconditions.notNull(feature.getName(), String.format("Feature is missing name in file: %s", file.getAbsolutePath()));
+        Preconditions.notNull(feature.getName(), String.format("Feature is missing name in file: %s", file.toAbsolutePath()));
         feature = normalizeName(feature);
 
-        return discoverScenarios(feature, file, context);
+        FeatureDescriptor featureDescriptor = discoverScenarios(feature, file);
+        // Features which were discovered with a tag filter are incomplete and cannot be reused by other runs
+        if (discoveryCache != null && scenarioSelectorResolver.tagFilter.isEmpty()) {
+            discoveryCache.put(file, contentHash, feature.getName(), featureDescriptor);
+        }
+        return featureDescriptor;
     }
 
-    private Set<Match> discoverScenarios(Feature feature, File file, Context context) {
-        ScenarioSelectorResolver scenarioSelectorResolver = new ScenarioSelectorResolver(uniqueId, configuration, methodCache);
-        Set<Match> matches = new HashSet<>();
-        String relativeFolder = getRelativeFeatureFolder(file, configuration.getFeaturesPackagePaths());
+    private FeatureDescriptor discoverScenarios(Feature feature, Path file) {
+        String relativeFolder = getRelativeFeatureFolder(file, getFeaturesPackagePaths());
         FeatureDescriptor featureDescriptor = new FeatureDescriptor(uniqueId, feature.getName(), file, relativeFolder);
         List<String> tags = new ArrayList<>();
         for (Tag tag : feature.getTags()) {
             tags.add(tag.getName());
         }
-        featureDescriptor.setTags(tags);
+        featureDescriptor.setTags(testTags.of(tags));
 
         List<ScenarioDefinition> filteredScenarios = feature.getScenarioDefinitions();
 
@@ -163,21 +360,26 @@ public class FeatureSelectorResolver implements SelectorResolver {
         }
 
         logger.fine(() -> "[Discovery] Check for duplicate scenarios");
-        List<String> names = scenarioDescriptors.stream().map(TestDescriptor::getDisplayName).collect(Collectors.toList());
+        long start = statistics.start();
         Set<String> items = new HashSet<>();
-        Set<String> duplicates = names.stream().filter(n -> !items.add(n)).collect(Collectors.toSet());
+        List<ScenarioDescriptor> duplicates = scenarioDescriptors.stream()
+                .filter(scenarioDescriptor -> !items.add(scenarioDescriptor.getDisplayName()))
+                .collect(Collectors.toList());
         if (duplicates.size() > 0) {
             throw new DiscoveryException(
                     String.format("Duplicate scenario name(s) in feature '%s': %s",
                             feature.getName(),
-                            String.join(",", duplicates)),
+                            duplicates.stream().map(TestDescriptor::getDisplayName).distinct()
+                                    .collect(Collectors.joining(","))),
                     featureDescriptor.getFile(),
-                    ExceptionHelper.getLineNumberInFeature(featureDescriptor.getFile(),
-                            duplicates.iterator().next().replaceAll(" [0-9]+$", "")));
+                    duplicates.get(0).getLine());
         }
+        statistics.stop(DiscoveryStatistics.Phase.DUPLICATE_CHECK, start);
 
         for (ScenarioDescriptor scenarioDescriptor : scenarioDescriptors) {
-            featureDescriptor.addChild(scenarioDescriptor);
+            if (scenarioSelectorResolver.isIncluded(scenarioDescriptor)) {
+                featureDescriptor.addChild(scenarioDescriptor);
+            }
         }
 
         logger.info(String.format("[Discovery] Scenarios: Found %s scenario(s) in feature \"%s%s\"",
@@ -185,55 +387,80 @@ public class FeatureSelectorResolver implements SelectorResolver {
                 relativeFolder,
                 feature.getName()));
 
+        return featureDescriptor;
+    }
+
+    private void removeExcludedScenarios(FeatureDescriptor featureDescriptor) {
+        List<TestDescriptor> excludedScenarios = featureDescriptor.getChildren().stream()
+                .filter(child -> !scenarioSelectorResolver.isIncluded((ScenarioDescriptor) child))
+                .collect(Collectors.toList());
+        excludedScenarios.forEach(featureDescriptor::removeChild);
+    }
+
+    private Set<Match> addToParent(FeatureDescriptor featureDescriptor, Context context) {
+        Set<Match> matches = new HashSet<>();
         context.addToParent(parent -> Optional.of(featureDescriptor));
         matches.add(Match.exact(featureDescriptor));
         return matches;
     }
 
-    private static String readFile(File file) throws IOException {
-        logger.fine(() -> String.format("[Discovery] Scenarios: Reading file: %s", file.getName()));
-        if (!file.isFile()) {
+    private Set<Path> getFeaturesPackagePaths() {
+        if (featuresPackagePaths == null) {
+            featuresPackagePaths = configuration.getFeaturesPackagePaths();
+        }
+        return featuresPackagePaths;
+    }
+
+    private static String readFile(Path file) throws IOException {
+        logger.fine(() -> String.format("[Discovery] Scenarios: Reading file: %s", file.getFileName()));
+        if (!Files.isRegularFile(file)) {
             throw new IllegalArgumentException(String.format("Provided file is a folder: %s",
-                    file.getAbsolutePath()));
+                    file.toAbsolutePath()));
         }
-        return Files.readString(Paths.get(file.getAbsolutePath()));
+        return Files.readString(file);
     }
 
     public static Feature normalizeName(Feature feature) {
-        String name = feature.getName()
+        return new Feature(feature.getTags(), feature.getLocation(), feature.getLanguage(), feature.getKeyword(),
+                normalizeName(feature.getName()), feature.getDescription(), feature.getBackground(),
+                feature.getScenarioDefinitions(), feature.getComments());
+    }
+
+    private static String normalizeName(String name) {
+        return name
                 .replaceAll("[^a-zA-Z0-9 ]+", " ")
                 .replaceAll("\\s+", " ")
                 .trim();
-
-        return new Feature(feature.getTags(), feature.getLocation(), feature.getLanguage(), feature.getKeyword(),
-                name, feature.getDescription(), feature.getBackground(), feature.getScenarioDefinitions(),
-                feature.getComments());
     }
 
     // Only public because of tests
-    public static String getRelativeFeatureFolder(File file, Set<File> featuresPackageFolders) {
-        // featuresPackageFolders.forEach(folder -> logger.info("Folder: " + folder.getAbsolutePath()));
-        // logger.info("File:   " + file.getAbsolutePath());
+    public static String getRelativeFeatureFolder(Path file, Set<Path> featuresPackageFolders) {
         Optional<String> relativeFolder = featuresPackageFolders.stream()
-                .map(folder -> relativize(folder, file.getParentFile()))
+                .map(folder -> relativize(folder, file.toAbsolutePath().getParent()))
                 .filter(Objects::nonNull)
                 .min(Comparator.comparingInt(String::length));
         if (relativeFolder.isEmpty()) {
             throw new RuntimeException(String.format(
                     "[Discovery] Could not relate any feature package folders to file %s",
-                    file.getAbsolutePath()));
+                    file.toAbsolutePath()));
         } else {
             return relativeFolder.get();
         }
     }
 
-    private static String relativize(File base, File relatable) {
+    private static String relativize(Path base, Path relatable) {
         // Return empty string when in the same parent directory and null if the base path is no part of
-        // to filter it in the stream later
-        if (relatable.getAbsolutePath().equals(base.getAbsolutePath())) {
+        // to filter it in the stream later. Paths of different file systems (e.g. a folder inside of a JAR and a
+        // folder on disk) never start with each other.
+        base = base.toAbsolutePath().normalize();
+        relatable = relatable.normalize();
+        if (relatable.equals(base)) {
             return "";
-        } else if (relatable.getAbsolutePath().startsWith(base.getAbsolutePath())) {
-            return relatable.getAbsolutePath().substring(base.getAbsolutePath().length() + 1) + "/";
+        } else if (relatable.startsWith(base)) {
+            // Folders are always separated by slashes so that the UniqueIds are the same on every platform
+            List<String> folders = new ArrayList<>();
+            base.relativize(relatable).forEach(folder -> folders.add(folder.toString()));
+            return String.join("/", folders) + "/";
         } else {
             return null;
         }
@@ -1,15 +1,22 @@
 package com.wire.qa.picklejar.engine.discovery;
 
 import com.wire.qa.picklejar.engine.annotations.AnnotationPattern;
+import com.wire.qa.picklejar.engine.processor.StepRegistry;
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.commons.util.ClassLoaderUtils;
 import org.junit.platform.commons.util.ReflectionUtils;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static org.junit.platform.commons.util.ReflectionUtils.HierarchyTraversalMode.TOP_DOWN;
@@ -24,69 +31,290 @@ public class MethodCache {
     private static final Predicate<Method> annotatedMethods = method -> method.getAnnotations().length > 0;
     private static final String ANNOTATION_VALUE_METHOD_NAME = "value";
     private static final String ANNOTATIONS_PACKAGE_NAME = "io.cucumber.java.en";
+    // Definitions of one package are sorted so that duplicates are resolved the same way for scanning and registry
+    private static final Comparator<StepDefinition> DEFINITION_ORDER = Comparator
+            .comparing((StepDefinition definition) -> definition.loadedClass.getName())
+            .thenComparing(definition -> definition.method.getName())
+            .thenComparing(definition -> definition.pattern.getAnnotation());
 
-    private Map<AnnotationPattern, Method> methodCache = new HashMap<>();
+    private final Map<AnnotationPattern, Method> methodCache;
+    private String fingerprint = null;
+    private final StepMatcher stepMatcher;
+    private final Map<Class<?>, Method> annotationValueMethods = new ConcurrentHashMap<>();
+    private final ParameterConverters parameterConverters;
+    // Conversions of the parameters of every step method, resolved once instead of for every step
+    private final Map<Method, ParameterConverters.Conversion[]> conversions = new ConcurrentHashMap<>();
 
     public MethodCache(List<String> stepsPackages) throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
-        generateMethodCache(stepsPackages);
+        this(stepsPackages, false, false);
+    }
+
+    public MethodCache(List<String> stepsPackages, boolean useRegistry, boolean useAutomaton) throws NoSuchMethodException,
+            IllegalAccessException, InvocationTargetException {
+        this(stepsPackages, useRegistry, useAutomaton, Collections.emptyList());
+    }
+
+    public MethodCache(List<String> stepsPackages, boolean useRegistry, boolean useAutomaton,
+                       List<String> parameterConverterClassNames) throws NoSuchMethodException,
+            IllegalAccessException, InvocationTargetException {
+        methodCache = Collections.unmodifiableMap(generateMethodCache(stepsPackages,
+                useRegistry ? StepRegistry.load(ClassLoaderUtils.getDefaultClassLoader()) : null));
+        stepMatcher = useAutomaton ? new StepAutomaton(methodCache) : new StepPatternIndex(methodCache);
+        parameterConverters = ParameterConverters.load(parameterConverterClassNames);
+        for (Method method : methodCache.values()) {
+            conversions.computeIfAbsent(method, parameterConverters::resolve);
+        }
     }
 
     public Map<AnnotationPattern, Method> getCache() {
         return methodCache;
     }
 
-    private Map<AnnotationPattern, Method> generateMethodCache(List<String> stepsPackages) throws NoSuchMethodException, SecurityException,
-            IllegalAccessException, IllegalArgumentException, InvocationTargetException {
-        for (String basePackageName : stepsPackages) {
-            logger.info("[Discovery] Steps: Searching package " + basePackageName);
-            Collection<Class<?>> annotationClasses = ReflectionUtils.findAllClassesInPackage(ANNOTATIONS_PACKAGE_NAME, Class::isAnnotation, allNames);
-            Collection<Class<?>> loadedClasses = ReflectionUtils.findAllClassesInPackage(basePackageName, allTypes, stepFiles);
-            logger.finest(() -> String.format("[Discovery] Steps: Loaded %d class(es)", loadedClasses.size()));
-            for (Class<?> loadedClass : loadedClasses) {
-                logger.finest(() -> "[Discovery] Steps: Loaded class: " + loadedClass.getName());
-
-                for (Method method : ReflectionUtils.findMethods(loadedClass, annotatedMethods, TOP_DOWN)) {
-                    List<Annotation> matchingAnnotations = Arrays
-                            .stream(method.getAnnotations())
-                            .filter(a -> annotationClasses.contains(a.annotationType()))
-                            .collect(Collectors.toList());
-                    if (matchingAnnotations.size() != 1) {
-                        logger.info(() ->
-                                String.format("[Discovery] Method %s in class %s contains multiple or no Gherkin annotations: %s",
-                                        method.getName(),
-                                        loadedClass.getName(),
-                                        matchingAnnotations
-                                                .stream()
-                                                .map(a -> a.annotationType().getName())
-                                                .collect(Collectors.joining(","))));
-                    } else {
-                        logger.finest(() -> "[Discovery] Steps: Make annotation value accessible");
-                        final Method annotationValueMethod =
-                                matchingAnnotations.get(0).getClass().getMethod(ANNOTATION_VALUE_METHOD_NAME);
-                        annotationValueMethod.setAccessible(true);
-                        final String annotationValue = (String) annotationValueMethod.invoke(matchingAnnotations.get(0));
-                        logger.finest(() -> String.format("[Discovery] Steps: Found method \"%s\" with regex \"%s\"",
-                                method.getName(),
-                                annotationValue));
-                        AnnotationPattern pattern = new AnnotationPattern(annotationValue);
-                        if (methodCache.containsKey(pattern)) {
-                            logger.warning(() -> String.format("[Discovery] Duplicated regex '%s' found! Method %s.%s() vs. %s.%s()",
-                                    pattern.getAnnotation(),
-                                    loadedClass.getName(),
+    /**
+     * Returns all step definitions whose regex can possibly match the given step text. The remaining step
+     * definitions are guaranteed to not match.
+     */
+    public List<Map.Entry<AnnotationPattern, Method>> getCandidates(String text) {
+        return stepMatcher.getCandidates(text);
+    }
+
+    /*
+    Returns the conversions of the captured texts into the parameters of the given step method. Methods which are not
+    part of the cache are resolved on first use.
+     */
+    ParameterConverters.Conversion[] getConversions(Method method) {
+        return conversions.computeIfAbsent(method, parameterConverters::resolve);
+    }
+
+    /**
+     * Returns a hash over all regexes and the signatures of their step methods. It changes as soon as a step
+     * definition is added, removed, changed or moved to another class. The definitions are hashed in the order of the
+     * configured steps packages because this order decides which method wins for duplicated regexes and for steps
+     * matched by several regexes.
+     */
+    public synchronized String getFingerprint() {
+        if (fingerprint == null) {
+            List<String> definitions = methodCache.entrySet().stream()
+                    .map(entry -> String.format("%s=%s#%s(%s)",
+                            entry.getKey().getAnnotation(),
+                            entry.getValue().getDeclaringClass().getName(),
+                            entry.getValue().getName(),
+                            Arrays.stream(entry.getValue().getParameterTypes())
+                                    .map(Class::getName)
+                                    .collect(Collectors.joining(","))))
+                    .collect(Collectors.toList());
+            fingerprint = DiscoveryCache.hash(String.join("\n", definitions));
+        }
+        return fingerprint;
+    }
+
+    /*
+    All steps packages are searched concurrently. The definitions are merged afterwards in the configured order of
+    the packages so that the first definition of a duplicated regex wins, independent of which package was searched
+    first.
+     */
+    private Map<AnnotationPattern, Method> generateMethodCache(List<String> stepsPackages, StepRegistry registry)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        Set<Class<?>> annotationClasses = new HashSet<>(
+                ReflectionUtils.findAllClassesInPackage(ANNOTATIONS_PACKAGE_NAME, Class::isAnnotation, allNames));
+
+        List<List<StepDefinition>> definitionsPerPackage = new ArrayList<>();
+        if (stepsPackages.size() == 1) {
+            definitionsPerPackage.add(findStepDefinitions(stepsPackages.get(0), registry, annotationClasses));
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(
+                    Math.min(stepsPackages.size(), Runtime.getRuntime().availableProcessors()),
+                    new DiscoveryThreadFactory("picklejar-steps-"));
+            try {
+                List<Future<List<StepDefinition>>> futures = new ArrayList<>();
+                for (String basePackageName : stepsPackages) {
+                    futures.add(executor.submit(() -> findStepDefinitions(basePackageName, registry, annotationClasses)));
+                }
+                for (Future<List<StepDefinition>> future : futures) {
+                    definitionsPerPackage.add(getStepDefinitions(future));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        Map<AnnotationPattern, Method> methods = new LinkedHashMap<>();
+        for (List<StepDefinition> definitions : definitionsPerPackage) {
+            for (StepDefinition definition : definitions) {
+                Method existing = methods.putIfAbsent(definition.pattern, definition.method);
+                if (existing != null) {
+                    logger.warning(() -> String.format("[Discovery] Duplicated regex '%s' found! Method %s.%s() vs. %s.%s()",
+                            definition.pattern.getAnnotation(),
+                            definition.loadedClass.getName(),
+                            definition.method.getName(),
+                            existing.getDeclaringClass().getName(),
+                            existing.getName()
+                    ));
+                }
+            }
+        }
+        logger.info(String.format("[Discovery] Steps: Add %d step method(s) into MethodCache", methods.size()));
+
+        return methods;
+    }
+
+    private static List<StepDefinition> getStepDefinitions(Future<List<StepDefinition>> future)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JUnitException("[Discovery] Interrupted while searching steps packages", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof NoSuchMethodException) {
+                throw (NoSuchMethodException) cause;
+            } else if (cause instanceof IllegalAccessException) {
+                throw (IllegalAccessException) cause;
+            } else if (cause instanceof InvocationTargetException) {
+                throw (InvocationTargetException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new JUnitException("[Discovery] Searching steps packages failed", cause);
+        }
+    }
+
+    private List<StepDefinition> findStepDefinitions(String basePackageName, StepRegistry registry,
+                                                     Set<Class<?>> annotationClasses)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        List<StepDefinition> definitions = null;
+        if (registry != null) {
+            definitions = loadFromRegistry(basePackageName, registry.getEntries(basePackageName), annotationClasses);
+        }
+        if (definitions == null) {
+            definitions = scanPackage(basePackageName, annotationClasses);
+        }
+        definitions.sort(DEFINITION_ORDER);
+        return definitions;
+    }
+
+    private List<StepDefinition> scanPackage(String basePackageName, Set<Class<?>> annotationClasses)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        logger.info("[Discovery] Steps: Searching package " + basePackageName);
+        List<StepDefinition> definitions = new ArrayList<>();
+        Collection<Class<?>> loadedClasses = ReflectionUtils.findAllClassesInPackage(basePackageName, allTypes, stepFiles);
+        logger.finest(() -> String.format("[Discovery] Steps: Loaded %d class(es)", loadedClasses.size()));
+        for (Class<?> loadedClass : loadedClasses) {
+            logger.finest(() -> "[Discovery] Steps: Loaded class: " + loadedClass.getName());
+
+            for (Method method : ReflectionUtils.findMethods(loadedClass, annotatedMethods, TOP_DOWN)) {
+                List<Annotation> matchingAnnotations = getStepAnnotations(method, annotationClasses);
+                if (matchingAnnotations.size() != 1) {
+                    logger.info(() ->
+                            String.format("[Discovery] Method %s in class %s contains multiple or no Gherkin annotations: %s",
                                     method.getName(),
-                                    methodCache.get(pattern).getDeclaringClass().getName(),
-                                    methodCache.get(pattern).getName()
-                            ));
-                        } else {
-                            methodCache.put(pattern, method);
-                        }
-                    }
+                                    loadedClass.getName(),
+                                    matchingAnnotations
+                                            .stream()
+                                            .map(a -> a.annotationType().getName())
+                                            .collect(Collectors.joining(","))));
+                } else {
+                    final String annotationValue = getAnnotationValue(matchingAnnotations.get(0));
+                    logger.finest(() -> String.format("[Discovery] Steps: Found method \"%s\" with regex \"%s\"",
+                            method.getName(),
+                            annotationValue));
+                    definitions.add(new StepDefinition(new AnnotationPattern(annotationValue), loadedClass, method));
                 }
             }
         }
-        logger.info(String.format("[Discovery] Steps: Add %d step method(s) into MethodCache", methodCache.size()));
+        return definitions;
+    }
 
-        return methodCache;
+    private static List<Annotation> getStepAnnotations(Method method, Set<Class<?>> annotationClasses) {
+        return Arrays
+                .stream(method.getAnnotations())
+                .filter(a -> annotationClasses.contains(a.annotationType()))
+                .collect(Collectors.toList());
+    }
+
+    private String getAnnotationValue(Annotation annotation) throws NoSuchMethodException, IllegalAccessException,
+            InvocationTargetException {
+        // The accessor is looked up once per annotation type instead of once per annotated method
+        Method annotationValueMethod = annotationValueMethods.get(annotation.annotationType());
+        if (annotationValueMethod == null) {
+            annotationValueMethod = annotation.annotationType().getMethod(ANNOTATION_VALUE_METHOD_NAME);
+            annotationValueMethods.put(annotation.annotationType(), annotationValueMethod);
+        }
+        return (String) annotationValueMethod.invoke(annotation);
+    }
+
+    /*
+    Returns the step definitions which were generated at compile time by the StepRegistryProcessor or null if the
+    registry does not contain the package or does not match the compiled classes anymore, the package is then scanned.
+    Every class of the registry is compared with its compiled step methods (including inherited ones, like when
+    scanning) so that changed, added and removed step definitions are noticed. Step classes which are missing in the
+    registry completely cannot be noticed without a scan.
+     */
+    private List<StepDefinition> loadFromRegistry(String basePackageName, List<StepRegistry.Entry> entries,
+                                                  Set<Class<?>> annotationClasses)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        Map<Class<?>, Map<Method, String>> registeredPatterns = new LinkedHashMap<>();
+        for (StepRegistry.Entry entry : entries) {
+            Optional<Class<?>> clazz = ReflectionUtils.tryToLoadClass(entry.getClassName()).toOptional();
+            Optional<Method> method = clazz
+                    .flatMap(c -> ReflectionUtils.findMethod(c, entry.getMethodName(), entry.getParameterTypes()));
+            if (method.isEmpty()) {
+                logger.warning(() -> String.format("[Discovery] Steps: Step registry is outdated (cannot find %s.%s()), "
+                        + "searching package %s instead", entry.getClassName(), entry.getMethodName(), basePackageName));
+                return null;
+            }
+            registeredPatterns.computeIfAbsent(clazz.get(), c -> new LinkedHashMap<>())
+                    .put(method.get(), entry.getPattern());
+        }
+
+        List<StepDefinition> definitions = new ArrayList<>();
+        for (Map.Entry<Class<?>, Map<Method, String>> registeredClass : registeredPatterns.entrySet()) {
+            Map<Method, String> compiledPatterns = new HashMap<>();
+            for (Method method : ReflectionUtils.findMethods(registeredClass.getKey(), annotatedMethods, TOP_DOWN)) {
+                List<Annotation> matchingAnnotations = getStepAnnotations(method, annotationClasses);
+                if (matchingAnnotations.size() == 1) {
+                    compiledPatterns.put(method, getAnnotationValue(matchingAnnotations.get(0)));
+                }
+            }
+            if (!compiledPatterns.equals(registeredClass.getValue())) {
+                Set<Method> changedMethods = new HashSet<>(compiledPatterns.keySet());
+                changedMethods.addAll(registeredClass.getValue().keySet());
+                changedMethods.removeIf(method ->
+                        Objects.equals(compiledPatterns.get(method), registeredClass.getValue().get(method)));
+                logger.warning(() -> String.format("[Discovery] Steps: Step registry is outdated (step definitions "
+                                + "%s of %s changed), searching package %s instead",
+                        changedMethods.stream()
+                                .map(method -> method.getDeclaringClass().getName() + "." + method.getName() + "()")
+                                .sorted()
+                                .collect(Collectors.joining(", ")),
+                        registeredClass.getKey().getName(), basePackageName));
+                return null;
+            }
+            registeredClass.getValue().forEach((method, pattern) -> definitions.add(
+                    new StepDefinition(new AnnotationPattern(pattern), registeredClass.getKey(), method)));
+        }
+        logger.info(() -> String.format("[Discovery] Steps: Loaded %d step definition(s) of package %s from step registry",
+                entries.size(), basePackageName));
+        return definitions;
+    }
+
+    private static class StepDefinition {
+        private final AnnotationPattern pattern;
+        // Class in which the method was found, might be a subclass of the declaring class
+        private final Class<?> loadedClass;
+        private final Method method;
+
+        private StepDefinition(AnnotationPattern pattern, Class<?> loadedClass, Method method) {
+            this.pattern = pattern;
+            this.loadedClass = loadedClass;
+            this.method = method;
+        }
     }
 
 }
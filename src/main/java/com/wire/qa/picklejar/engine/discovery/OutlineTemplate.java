@@ -0,0 +1,95 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Step text or scenario name of a Scenario Outline which is split once into literal text and placeholders (e.g.
+ * "&lt;name&gt;" for the example column "name"). Every example row is then rendered in a single pass instead of
+ * replacing every column one after another.
+ * <p>
+ * Only placeholders of the original text are replaced, values which contain a placeholder themselves are inserted
+ * as they are.
+ */
+final class OutlineTemplate {
+
+    private final String text;
+    // Literal before every placeholder, the last literal follows the last placeholder
+    private final String[] literals;
+    // Index of the example column of every placeholder
+    private final int[] columns;
+    private final int literalsLength;
+
+    private OutlineTemplate(String text, String[] literals, int[] columns) {
+        this.text = text;
+        this.literals = literals;
+        this.columns = columns;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalsLength = length;
+    }
+
+    /**
+     * Parses the given text with the names of the example columns. If a column name appears multiple times the last
+     * column is used.
+     */
+    static OutlineTemplate parse(String text, List<String> columnNames) {
+        if (columnNames.isEmpty() || text.indexOf('<') < 0) {
+            return new OutlineTemplate(text, new String[]{text}, new int[0]);
+        }
+        Map<String, Integer> columnIndexes = new HashMap<>();
+        for (int i = 0; i < columnNames.size(); i++) {
+            columnIndexes.put(columnNames.get(i), i);
+        }
+        List<String> literals = new ArrayList<>();
+        List<Integer> columns = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int end = c == '<' ? text.indexOf('>', i + 1) : -1;
+            Integer column = end < 0 ? null : columnIndexes.get(text.substring(i + 1, end));
+            if (column == null) {
+                literal.append(c);
+                i++;
+            } else {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                columns.add(column);
+                i = end + 1;
+            }
+        }
+        literals.add(literal.toString());
+        return new OutlineTemplate(text,
+                literals.toArray(new String[0]),
+                columns.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    boolean hasPlaceholders() {
+        return columns.length > 0;
+    }
+
+    /**
+     * Renders the template with the values of one example row. The text itself is returned if it does not contain
+     * any placeholder.
+     */
+    String render(String[] values) {
+        if (!hasPlaceholders()) {
+            return text;
+        }
+        int length = literalsLength;
+        for (int column : columns) {
+            length += values[column].length();
+        }
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < columns.length; i++) {
+            builder.append(literals[i]).append(values[columns[i]]);
+        }
+        builder.append(literals[columns.length]);
+        return builder.toString();
+    }
+}
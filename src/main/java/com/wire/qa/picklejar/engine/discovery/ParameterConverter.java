@@ -0,0 +1,23 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+/**
+ * Converts the text captured by a group of a step regex into a parameter of the step method.
+ * <p>
+ * Converters are registered with the property com.wire.qa.picklejar.engine.discovery.converters and need a public
+ * no-arg constructor. They are asked in the configured order before the built-in converters, so they can also
+ * replace a built-in conversion. The converter for a parameter is looked up once per step method when the step
+ * definitions are loaded, not for every step.
+ */
+public interface ParameterConverter {
+
+    /**
+     * Returns true if the converter can create values of the given parameter type.
+     */
+    boolean supports(Class<?> type);
+
+    /**
+     * Converts the captured text which is null if the group did not participate in the match. Any exception marks
+     * the text as not convertible and fails the discovery of the step.
+     */
+    Object convert(String value, Class<?> type) throws Exception;
+}
@@ -0,0 +1,122 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.wire.qa.picklejar.engine.exception.MisconfigurationException;
+import org.junit.platform.commons.util.ReflectionUtils;
+
+/**
+ * Registry of the configured {@link ParameterConverter}s and the built-in conversions for primitives, their
+ * wrappers, strings, enums, UUIDs, durations (ISO-8601, e.g. PT5S) and big numbers.
+ */
+final class ParameterConverters {
+
+    /**
+     * Conversion for one parameter type which was resolved in advance. Throws if the text is not convertible.
+     */
+    interface Conversion {
+        Object convert(String value) throws Exception;
+    }
+
+    private static final Map<Class<?>, Conversion> BUILT_IN = createBuiltIn();
+
+    private final List<ParameterConverter> converters;
+
+    ParameterConverters(List<ParameterConverter> converters) {
+        this.converters = converters;
+    }
+
+    static ParameterConverters load(List<String> classNames) {
+        List<ParameterConverter> converters = new ArrayList<>();
+        for (String className : classNames) {
+            Class<?> converterClass = ReflectionUtils.tryToLoadClass(className)
+                    .getOrThrow(e -> new MisconfigurationException(
+                            String.format("Cannot load parameter converter %s: %s", className, e.getMessage())));
+            if (!ParameterConverter.class.isAssignableFrom(converterClass)) {
+                throw new MisconfigurationException(String.format("Parameter converter %s does not implement %s",
+                        className, ParameterConverter.class.getName()));
+            }
+            converters.add((ParameterConverter) ReflectionUtils.newInstance(converterClass));
+        }
+        return new ParameterConverters(Collections.unmodifiableList(converters));
+    }
+
+    Conversion[] resolve(Method method) {
+        Class<?>[] types = method.getParameterTypes();
+        Conversion[] conversions = new Conversion[types.length];
+        for (int i = 0; i < types.length; i++) {
+            conversions[i] = resolve(types[i]);
+        }
+        return conversions;
+    }
+
+    Conversion resolve(Class<?> type) {
+        for (ParameterConverter converter : converters) {
+            if (converter.supports(type)) {
+                return value -> converter.convert(value, type);
+            }
+        }
+        Conversion conversion = BUILT_IN.get(type);
+        if (conversion != null) {
+            return conversion;
+        }
+        if (type.isEnum()) {
+            Map<String, Object> constants = new HashMap<>();
+            for (Object constant : type.getEnumConstants()) {
+                constants.put(((Enum<?>) constant).name(), constant);
+            }
+            return value -> {
+                Object constant = constants.get(value);
+                if (constant == null) {
+                    throw new IllegalArgumentException(String.format("No constant %s in %s", value, type.getName()));
+                }
+                return constant;
+            };
+        }
+        return value -> {
+            throw new IllegalArgumentException("No parameter converter for " + type.getName());
+        };
+    }
+
+    /*
+    Only strings, int and boolean accept a missing value (null) as before, it is converted to null, 0 or false. All
+    other built-in conversions reject it.
+     */
+    private static Map<Class<?>, Conversion> createBuiltIn() {
+        Map<Class<?>, Conversion> conversions = new HashMap<>();
+        register(conversions, value -> value, String.class);
+        register(conversions, value -> value == null ? 0 : Integer.parseInt(value), int.class, Integer.class);
+        register(conversions, Boolean::parseBoolean, boolean.class, Boolean.class);
+        register(conversions, Short::parseShort, short.class, Short.class);
+        register(conversions, Long::parseLong, long.class, Long.class);
+        register(conversions, Byte::parseByte, byte.class, Byte.class);
+        register(conversions, Float::parseFloat, float.class, Float.class);
+        register(conversions, Double::parseDouble, double.class, Double.class);
+        register(conversions, value -> {
+            if (value.length() != 1) {
+                throw new IllegalArgumentException("Expected a single character but got: " + value);
+            }
+            return value.charAt(0);
+        }, char.class, Character.class);
+        register(conversions, UUID::fromString, UUID.class);
+        register(conversions, Duration::parse, Duration.class);
+        register(conversions, BigInteger::new, BigInteger.class);
+        register(conversions, BigDecimal::new, BigDecimal.class);
+        return Collections.unmodifiableMap(conversions);
+    }
+
+    private static void register(Map<Class<?>, Conversion> conversions, Conversion conversion, Class<?>... types) {
+        for (Class<?> type : types) {
+            conversions.put(type, conversion);
+        }
+    }
+}
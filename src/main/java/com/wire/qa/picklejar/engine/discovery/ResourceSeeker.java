@@ -2,15 +2,19 @@ package com.wire.qa.picklejar.engine.discovery;
 
 import org.junit.platform.commons.util.Preconditions;
 
-import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -21,48 +25,75 @@ public class ResourceSeeker {
 
     private static final Logger logger = Logger.getLogger(ResourceSeeker.class.getName());
 
-    public static Collection<File> scanForFilesInPackage(String packageName, FilenameFilter fileFilter) {
-        Set<File> resourcesDirectories = getResourceDirectoriesFromPackage(packageName);
-        return resourcesDirectories.stream().flatMap(
-                directory -> {
-                    logger.fine(() -> "[Discovery] Features: Searching in directory: " + directory.getAbsolutePath());
-                    Preconditions.condition(directory.isDirectory(),
-                            "Resource directory cannot be found through feature package name");
-                    List<File> files = new ArrayList<>();
-                    try (Stream<Path> paths = Files.walk(directory.toPath())) {
-                        files = paths.filter(Files::isRegularFile)
-                                .map(Path::toFile)
-                                .filter(file -> fileFilter.accept(file, file.getName()))
-                                .collect(Collectors.toList());
-                    } catch (IOException e) {
-                        throw new RuntimeException("Error occured when searching for feature files", e);
-                    }
-                    return files.stream();
-                }
-        ).collect(Collectors.toList());
+    private static final String JAR_SCHEME = "jar";
+
+    public static Collection<Path> scanForFilesInPackage(String packageName, FilenameFilter fileFilter) {
+        List<Path> files = new ArrayList<>();
+        scanForFilesInPackage(packageName, fileFilter, files::add);
+        return files;
     }
 
-    public static Set<File> getResourceDirectoriesFromPackage(String packageName) {
+    // Hands every matching file to the consumer as soon as it is found while walking the resource directories
+    public static void scanForFilesInPackage(String packageName, FilenameFilter fileFilter, Consumer<Path> consumer) {
+        Set<Path> resourcesDirectories = getResourceDirectoriesFromPackage(packageName);
+        for (Path directory : resourcesDirectories) {
+            logger.fine(() -> "[Discovery] Features: Searching in directory: " + directory.toUri());
+            Preconditions.condition(Files.isDirectory(directory),
+                    "Resource directory cannot be found through feature package name");
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.filter(Files::isRegularFile)
+                        .filter(file -> fileFilter.accept(null, file.getFileName().toString()))
+                        .forEachOrdered(consumer);
+            } catch (IOException e) {
+                throw new RuntimeException("Error occured when searching for feature files", e);
+            }
+        }
+    }
+
+    public static Set<Path> getResourceDirectoriesFromPackage(String packageName) {
         try {
             Preconditions.condition(
                     isNotBlank(packageName),
                     "basePackageName must not be null or blank");
             packageName = packageName.trim();
 
-            String path = packageName.replace(".", File.separator);
+            // Resource names are separated by slashes on every platform
+            String path = packageName.replace(".", "/");
             List<URL> resourceUrl = Collections.list(Thread.currentThread().getContextClassLoader().getResources(path));
             Preconditions.condition(resourceUrl != null,
                     "Resource directory cannot be found through feature package name");
-            return resourceUrl.stream().map(url -> {
-                try {
-                    return Paths.get(url.toURI()).toFile();
-                } catch (URISyntaxException e) {
-                    logger.warning(() -> String.format("[Discovery] Features: Failed to convert %s to file path", url));
-                    return null;
-                }
-            }).collect(Collectors.toSet());
+            return resourceUrl.stream()
+                    .map(ResourceSeeker::toPath)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
         } catch (IOException e) {
             throw new RuntimeException("Error occured when searching for feature files", e);
         }
     }
+
+    private static Path toPath(URL url) {
+        try {
+            URI uri = url.toURI();
+            if (JAR_SCHEME.equals(uri.getScheme())) {
+                openZipFileSystem(uri);
+            }
+            return Paths.get(uri);
+        } catch (URISyntaxException | IOException | FileSystemNotFoundException | IllegalArgumentException e) {
+            logger.warning(() -> String.format("[Discovery] Features: Failed to convert %s to file path", url));
+            return null;
+        }
+    }
+
+    /*
+    Directories inside of a JAR are walked and read through a zip file system instead of extracting them. The file
+    system stays open for the whole lifetime of the engine because the found feature files are read after the
+    directories were walked and can be selected again by later discovery requests.
+     */
+    private static void openZipFileSystem(URI uri) throws IOException {
+        try {
+            FileSystems.newFileSystem(uri, Collections.emptyMap());
+        } catch (FileSystemAlreadyExistsException e) {
+            logger.finest(() -> "[Discovery] Features: Reusing zip file system for " + uri);
+        }
+    }
 }
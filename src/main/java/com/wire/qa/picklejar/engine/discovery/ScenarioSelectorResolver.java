@@ -1,8 +1,9 @@
 package com.wire.qa.picklejar.engine.discovery;
 
-import java.io.File;
 import java.lang.reflect.Method;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Function;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.stream.Collectors;
@@ -14,14 +15,16 @@ import com.wire.qa.picklejar.engine.descriptor.MethodDescriptor;
 import com.wire.qa.picklejar.engine.descriptor.ScenarioDescriptor;
 import com.wire.qa.picklejar.engine.descriptor.StepDescriptor;
 import com.wire.qa.picklejar.engine.exception.DiscoveryException;
-import com.wire.qa.picklejar.engine.exception.ExceptionHelper;
 import com.wire.qa.picklejar.engine.exception.MethodForStepNotFoundException;
 import gherkin.ast.ScenarioDefinition;
 import gherkin.ast.ScenarioOutline;
 import gherkin.ast.Step;
+import gherkin.ast.TableCell;
 import gherkin.ast.TableRow;
 import gherkin.ast.Tag;
 import org.junit.platform.commons.util.Preconditions;
+import org.junit.platform.engine.Filter;
+import org.junit.platform.engine.TestDescriptor;
 import org.junit.platform.engine.TestTag;
 import org.junit.platform.engine.UniqueId;
 import org.junit.platform.engine.support.discovery.SelectorResolver;
@@ -32,16 +35,34 @@ public class ScenarioSelectorResolver implements SelectorResolver {
 
     protected final UniqueId uniqueId;
     protected final PicklejarConfiguration configuration;
-    protected final Map<AnnotationPattern, Method> methodCache;
+    protected final MethodCache methodCache;
+    protected final StepResolutions stepResolutions;
+    protected final TestTags testTags;
+    protected final Optional<Filter<TestDescriptor>> tagFilter;
+    private final DiscoveryStatistics statistics;
     // Following characters are forbidden because they are used to structure the -Dtest parameter
     protected final String[] forbiddenCharacters = {"+", "#", "\\", "\""};
 
-    ScenarioSelectorResolver(UniqueId uniqueId, PicklejarConfiguration configuration, Map<AnnotationPattern, Method> methodCache) {
+    ScenarioSelectorResolver(UniqueId uniqueId, PicklejarConfiguration configuration, MethodCache methodCache,
+                             StepResolutions stepResolutions, TestTags testTags, DiscoveryStatistics statistics) {
         this.uniqueId = uniqueId;
         this.configuration = configuration;
         this.methodCache = methodCache;
+        this.stepResolutions = stepResolutions;
+        this.testTags = testTags;
+        this.tagFilter = configuration.getTagFilter();
+        this.statistics = statistics;
     }
 
+    // Scenarios which are excluded by the configured tags are returned without steps (see discover())
+    public boolean isIncluded(ScenarioDescriptor scenarioDescriptor) {
+        return tagFilter.map(filter -> filter.apply(scenarioDescriptor).included()).orElse(true);
+    }
+
+    /*
+    Returns all scenarios of the definition so that e.g. duplicate names are detected independent of the configured
+    tags. The steps are only discovered for scenarios which are included by the tags.
+     */
     public List<ScenarioDescriptor> discover(ScenarioDefinition scenarioDefinition, FeatureDescriptor featureDescriptor) {
         List<ScenarioDescriptor> scenarioDescriptors = new ArrayList<>();
 
@@ -57,7 +78,7 @@ public class ScenarioSelectorResolver implements SelectorResolver {
                         featureDescriptor.getFeature().getName()
                 );
                 throw new DiscoveryException(message, featureDescriptor.getFile(),
-                        ExceptionHelper.getLineNumberInFeature(featureDescriptor.getFile(), scenarioDefinition.getName()));
+                        scenarioDefinition.getLocation().getLine());
             }
         }
 
@@ -76,26 +97,31 @@ public class ScenarioSelectorResolver implements SelectorResolver {
             logger.finest(() -> "[Discovery] Discovered Scenario Outline: " + scenarioDefinition.getName());
             ScenarioOutline scenarioOutline = (ScenarioOutline) scenarioDefinition;
 
+            // Rendered names and step texts which repeat between rows share one string
+            Map<String, String> renderedTexts = new HashMap<>();
             for (int i = 0; i < scenarioOutline.getExamples().size(); i++) {
-                TableRow tableHeader = scenarioOutline.getExamples().get(i).getTableHeader();
+                List<String> columnNames = scenarioOutline.getExamples().get(i).getTableHeader().getCells().stream()
+                        .map(TableCell::getValue)
+                        .collect(Collectors.toList());
                 List<TableRow> tableRows = scenarioOutline.getExamples().get(i).getTableBody();
+                OutlineTemplate nameTemplate = OutlineTemplate.parse(scenarioDefinition.getName(), columnNames);
+                List<OutlineTemplate> stepTemplates = parseStepTemplates(steps, columnNames);
 
                 for (int j = 0; j < tableRows.size(); j++) {
                     TableRow tableRow = tableRows.get(j);
-                    Map<String, String> exampleRowWithHeader = new HashMap<>();
-                    for (int k = 0; k < tableRow.getCells().size(); k++) {
-                        String key = tableHeader.getCells().get(k).getValue();
-                        String value = tableRow.getCells().get(k).getValue();
-                        exampleRowWithHeader.put(key, value);
-                    }
+                    String[] values = tableRow.getCells().stream().map(TableCell::getValue).toArray(String[]::new);
                     logger.finest(() -> "[Discovery] Scenarios: Add scenario: " + scenarioDefinition.getName());
                     ScenarioDescriptor scenarioDescriptor = new ScenarioDescriptor(
                             featureDescriptor.getUniqueId(),
-                            replaceExampleOccurences(scenarioDefinition.getName(), exampleRowWithHeader),
+                            render(nameTemplate, values, renderedTexts),
                             j,
                             featureDescriptor.getFile());
-                    scenarioDescriptor.setTags(tags);
-                    scenarioDescriptor.setStepDescriptors(discoverSteps(scenarioDescriptor, steps, exampleRowWithHeader));
+                    scenarioDescriptor.setTags(testTags.of(tags));
+                    scenarioDescriptor.setLine(tableRow.getLocation().getLine());
+                    if (isIncluded(scenarioDescriptor)) {
+                        scenarioDescriptor.setStepDescriptors(discoverSteps(scenarioDescriptor, steps, stepTemplates,
+                                values, renderedTexts));
+                    }
                     scenarioDescriptors.add(scenarioDescriptor);
                     logger.fine(() -> "[Discovery] Scenarios: Added: " + scenarioDescriptor.getUniqueId());
                 }
@@ -106,35 +132,75 @@ public class ScenarioSelectorResolver implements SelectorResolver {
                     featureDescriptor.getUniqueId(),
                     scenarioDefinition.getName(),
                     featureDescriptor.getFile());
-            scenarioDescriptor.setTags(tags);
-            scenarioDescriptor.setStepDescriptors(discoverSteps(scenarioDescriptor, steps, new HashMap<>()));
+            scenarioDescriptor.setTags(testTags.of(tags));
+            scenarioDescriptor.setLine(scenarioDefinition.getLocation().getLine());
+            if (isIncluded(scenarioDescriptor)) {
+                scenarioDescriptor.setStepDescriptors(discoverSteps(scenarioDescriptor, steps,
+                        parseStepTemplates(steps, Collections.emptyList()), new String[0], new HashMap<>()));
+            }
             scenarioDescriptors.add(scenarioDescriptor);
         }
         return scenarioDescriptors;
     }
 
-    private List<StepDescriptor> discoverSteps(ScenarioDescriptor scenario, List<Step> steps, Map<String, String> exampleValues) {
+    private static List<OutlineTemplate> parseStepTemplates(List<Step> steps, List<String> columnNames) {
+        return steps.stream()
+                .map(step -> OutlineTemplate.parse(step.getText(), columnNames))
+                .collect(Collectors.toList());
+    }
+
+    private static String render(OutlineTemplate template, String[] values, Map<String, String> renderedTexts) {
+        if (!template.hasPlaceholders()) {
+            return template.render(values);
+        }
+        return renderedTexts.computeIfAbsent(template.render(values), Function.identity());
+    }
+
+    private List<StepDescriptor> discoverSteps(ScenarioDescriptor scenario, List<Step> steps,
+                                               List<OutlineTemplate> stepTemplates, String[] values,
+                                               Map<String, String> renderedTexts) {
         List<StepDescriptor> stepDescriptors = new ArrayList<>();
 
         // search text in annotation
-        for (Step step : steps) {
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            String text = render(stepTemplates.get(i), values, renderedTexts);
             StepDescriptor stepDescriptor = new StepDescriptor();
             stepDescriptor.setKeyword(step.getKeyword());
-            stepDescriptor.setDisplayName(replaceExampleOccurences(step.getText(), exampleValues));
-            stepDescriptor.setMethodDescriptor(discoverMethodDescriptor(step.getText(), exampleValues, scenario.getFile()));
+            stepDescriptor.setDisplayName(text);
+            stepDescriptor.setLine(step.getLocation().getLine());
+            stepDescriptor.setMethodDescriptor(discoverMethodDescriptor(text, step.getText(), scenario.getFile(),
+                    stepDescriptor.getLine()));
             stepDescriptor.setParent(scenario);
             stepDescriptors.add(stepDescriptor);
         }
         return stepDescriptors;
     }
 
-    private MethodDescriptor discoverMethodDescriptor(String rawText, Map<String, String> exampleParams, File file) {
-        final String text = replaceExampleOccurences(rawText, exampleParams);
+    private MethodDescriptor discoverMethodDescriptor(String text, String rawText, Path file, int line) {
+        StepResolutions.Resolution resolution = stepResolutions.resolve(text, key -> resolveStep(key, rawText));
+        if (resolution.isFailed()) {
+            throw new MethodForStepNotFoundException(resolution.getFailureMessage(rawText), file, line);
+        }
+        return resolution.getMethodDescriptor();
+    }
+
+    private StepResolutions.Resolution resolveStep(String text, String rawText) {
+        long start = statistics.start();
+        statistics.count(DiscoveryStatistics.Counter.STEP_RESOLUTIONS);
+        try {
+            return matchStep(text, rawText);
+        } finally {
+            statistics.stop(DiscoveryStatistics.Phase.STEP_MATCHING, start);
+        }
+    }
+
+    private StepResolutions.Resolution matchStep(String text, String rawText) {
         List<MethodDescriptor> results = new ArrayList<>();
 
         logger.finest(() -> "[Discovery] Methods: Discover methods");
 
-        for (Map.Entry<AnnotationPattern, Method> entrySet : methodCache.entrySet()) {
+        for (Map.Entry<AnnotationPattern, Method> entrySet : methodCache.getCandidates(text)) {
             final AnnotationPattern pattern = entrySet.getKey();
             final Method method = entrySet.getValue();
 
@@ -144,7 +210,10 @@ public class ScenarioSelectorResolver implements SelectorResolver {
 
             logger.finest(() -> "[Discovery] Methods: Check regex: " + pattern.getAnnotation());
 
-            if (matcher.matches()) {
+            long evaluationStart = statistics.start();
+            boolean matches = matcher.matches();
+            statistics.patternEvaluated(pattern, evaluationStart, matches);
+            if (matches) {
                 logger.finest(() -> String.format("[Discovery] Method %s matches", method.getName()));
 
                 if (matcher.groupCount() == method.getParameterTypes().length) {
@@ -160,100 +229,46 @@ public class ScenarioSelectorResolver implements SelectorResolver {
                     continue;
                 }
 
-                final List<Object> params = new ArrayList<>();
-
                 Class<?>[] types = method.getParameterTypes();
+                ParameterConverters.Conversion[] conversions = methodCache.getConversions(method);
+                final String[] arguments = new String[types.length];
+                final Object[] params = new Object[types.length];
                 logger.finest(() -> String.format("[Discovery] Methods: Expected parameter types: \n%s", new Object[]{Arrays.asList(types)}));
-                for (int i = 1; i <= matcher.groupCount(); i++) {
-                    params.add(tryCast(matcher.group(i), types[i - 1], rawText, file));
+                for (int i = 0; i < types.length; i++) {
+                    final String value = matcher.group(i + 1);
+                    final Class<?> type = types[i];
+                    arguments[i] = value;
+                    try {
+                        params[i] = conversions[i].convert(value);
+                        statistics.count(DiscoveryStatistics.Counter.CONVERSIONS);
+                    } catch (Exception e) {
+                        statistics.count(DiscoveryStatistics.Counter.CONVERSION_FAILURES);
+                        return StepResolutions.Resolution.failed(step -> String.format(
+                                "[Discovery] Methods: Step '%s' has wrong parameter type. Expected type: %s. Actual value: %s",
+                                step, type.getName(), value));
+                    }
                 }
-                logger.finest(() -> String.format("[Discovery] Methods: Actual parameters: \n%s", new Object[]{params}));
-                logger.finest(() -> String.format("[Discovery] Methods: Found method %s with %s", method.getName(), params));
+                logger.finest(() -> String.format("[Discovery] Methods: Actual parameters: \n%s", new Object[]{Arrays.asList(params)}));
+                logger.finest(() -> String.format("[Discovery] Methods: Found method %s with %s", method.getName(), Arrays.asList(params)));
 
-                results.add(new MethodDescriptor(method, params.toArray()));
+                results.add(new MethodDescriptor(method, params, arguments));
                 if (!configuration.doMultipleStepsMatchingWarning()) {
                     break;
                 }
             }
         }
         if (results.size() < 1) {
-            String message = String.format("Could not find match for step '%s'", rawText);
-            throw new MethodForStepNotFoundException(message, file,
-                    ExceptionHelper.getLineNumberInFeature(file, rawText));
+            return StepResolutions.Resolution.failed(step -> String.format("Could not find match for step '%s'", step));
         } else if (results.size() > 1) {
             List<String> methodList = results.stream().map(m -> m.getMethod().getName()).collect(Collectors.toList());
             logger.warning(() -> String.format("Multiple matches for step '%s': %s", rawText, String.join(",", methodList)));
         }
-        return results.get(0);
+        return StepResolutions.Resolution.resolved(results.get(0));
     }
 
     public String replaceExampleOccurences(String rawStep, Map<String, String> exampleParams) {
-        for (String key : exampleParams.keySet()) {
-            rawStep = rawStep.replaceAll(Matcher.quoteReplacement("<" + key + ">"), Matcher.quoteReplacement(exampleParams.get(key)));
-        }
-        return rawStep;
-    }
-
-    private static Object tryCast(String thingToCast, Class<?> clazz, String step, File file) {
-        switch (clazz.toString()) {
-            case "short":
-            case "class java.lang.Short":
-                try {
-                    return Integer.parseInt(thingToCast);
-                } catch (NumberFormatException e) {
-                    break;
-                }
-            case "int":
-            case "class java.lang.Integer":
-                try {
-                    if (thingToCast == null) return 0;
-                    return Integer.parseInt(thingToCast);
-                } catch (NumberFormatException e) {
-                    break;
-                }
-            case "long":
-            case "class java.lang.Long":
-                try {
-                    return Long.parseLong(thingToCast);
-                } catch (NumberFormatException e) {
-                    break;
-                }
-            case "float":
-            case "class java.lang.Float":
-                try {
-                    return Float.parseFloat(thingToCast);
-                } catch (NumberFormatException e) {
-                    break;
-                }
-            case "double":
-            case "class java.lang.Double":
-                try {
-                    return Double.parseDouble(thingToCast);
-                } catch (NumberFormatException e) {
-                    break;
-                }
-            case "char":
-            case "class java.lang.Character":
-                try {
-                    return thingToCast.charAt(0);
-                } catch (IndexOutOfBoundsException e) {
-                    break;
-                }
-            case "byte":
-            case "class java.lang.Byte":
-                try {
-                    return Byte.parseByte(thingToCast);
-                } catch (NumberFormatException e) {
-                    break;
-                }
-            case "boolean":
-            case "class java.lang.Boolean":
-                return Boolean.parseBoolean(thingToCast);
-            case "class java.lang.String":
-                return thingToCast;
-        }
-        String message = String.format("[Discovery] Methods: Step '%s' has wrong parameter type. Expected type: %s. Actual value: %s", step, clazz.getName(), thingToCast);
-        throw new MethodForStepNotFoundException(message, file,
-                ExceptionHelper.getLineNumberInFeature(file, step));
+        List<String> columnNames = new ArrayList<>(exampleParams.keySet());
+        return OutlineTemplate.parse(rawStep, columnNames)
+                .render(columnNames.stream().map(exampleParams::get).toArray(String[]::new));
     }
 }
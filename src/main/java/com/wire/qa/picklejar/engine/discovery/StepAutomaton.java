@@ -0,0 +1,552 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+import java.util.logging.Logger;
+
+import com.wire.qa.picklejar.engine.annotations.AnnotationPattern;
+
+/**
+ * Matches a step text against all step regexes in a single pass.
+ * <p>
+ * All regexes are compiled into one combined NFA (Thompson construction) whose accepting states are tagged with the
+ * step definition they belong to. The NFA is simulated as a lazily built DFA: Every set of NFA states which is
+ * reached while matching becomes a DFA state and its transitions are cached, so that the cost of matching only
+ * depends on the length of the step text and not on the number of step definitions. The returned step definitions
+ * match the whole text, java.util.regex is then only needed to extract the groups of the winner.
+ * <p>
+ * Only the regular subset of java.util.regex is supported (literals, character classes, predefined classes, groups,
+ * alternations and quantifiers). Regexes with other constructs like backreferences, lookarounds, flags, boundaries or
+ * possessive quantifiers are always returned as candidate and are checked with java.util.regex.
+ */
+class StepAutomaton implements StepMatcher {
+
+    private static final Logger logger = Logger.getLogger(StepAutomaton.class.getName());
+
+    // Bigger bounded repetitions would blow up the size of the NFA
+    private static final int MAX_REPETITIONS = 100;
+    private static final int MAX_STATES_PER_REGEX = 10_000;
+    // When reached, new DFA states are still computed but not cached anymore
+    private static final int MAX_CACHED_STATES = 10_000;
+
+    private static final IntPredicate DIGIT = c -> c >= '0' && c <= '9';
+    private static final IntPredicate WORD = c -> c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || DIGIT.test(c);
+    private static final IntPredicate WHITESPACE = c -> c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    private static final IntPredicate DOT = c -> c != '\n' && c != '\r' && c != '\u0085' && c != '\u2028' && c != '\u2029';
+
+    private final List<Map.Entry<AnnotationPattern, Method>> definitions;
+    private final BitSet fallbacks = new BitSet();
+    private final List<State> states = new ArrayList<>();
+    private final Map<BitSet, DfaState> dfaStates = new ConcurrentHashMap<>();
+    private final DfaState start;
+
+    StepAutomaton(Map<AnnotationPattern, Method> methodCache) {
+        this.definitions = new ArrayList<>(methodCache.entrySet());
+        State nfaStart = newState();
+        for (int i = 0; i < definitions.size(); i++) {
+            String regex = definitions.get(i).getKey().getAnnotation();
+            Node node;
+            try {
+                node = new RegexParser(regex).parse();
+            } catch (UnsupportedRegexException e) {
+                logger.fine(() -> String.format("[Discovery] Steps: Regex '%s' is checked with java.util.regex: %s",
+                        regex, e.getMessage()));
+                fallbacks.set(i);
+                continue;
+            }
+            int firstState = states.size();
+            State accept = newState();
+            accept.definition = i;
+            State regexStart = node.compile(this, accept);
+            if (states.size() - firstState > MAX_STATES_PER_REGEX) {
+                logger.fine(() -> String.format("[Discovery] Steps: Regex '%s' is checked with java.util.regex: "
+                        + "Too many states", regex));
+                states.subList(firstState, states.size()).clear();
+                fallbacks.set(i);
+                continue;
+            }
+            nfaStart.epsilons.add(regexStart);
+        }
+        BitSet closure = new BitSet();
+        addClosure(nfaStart, closure);
+        this.start = getDfaState(closure);
+        logger.info(String.format("[Discovery] Steps: Compiled %d of %d step regex(es) into automaton with %d state(s)",
+                definitions.size() - fallbacks.cardinality(), definitions.size(), states.size()));
+    }
+
+    @Override
+    public List<Map.Entry<AnnotationPattern, Method>> getCandidates(String text) {
+        DfaState state = start;
+        int i = 0;
+        while (i < text.length() && !state.isDead()) {
+            int codePoint = text.codePointAt(i);
+            state = step(state, codePoint);
+            i += Character.charCount(codePoint);
+        }
+        BitSet candidates = (BitSet) fallbacks.clone();
+        if (i == text.length()) {
+            candidates.or(state.accepts);
+        }
+        List<Map.Entry<AnnotationPattern, Method>> result = new ArrayList<>(candidates.cardinality());
+        for (int j = candidates.nextSetBit(0); j >= 0; j = candidates.nextSetBit(j + 1)) {
+            result.add(definitions.get(j));
+        }
+        return result;
+    }
+
+    private DfaState step(DfaState state, int codePoint) {
+        DfaState next = state.transitions.get(codePoint);
+        if (next == null) {
+            BitSet closure = new BitSet();
+            for (int id : state.charStates) {
+                State nfaState = states.get(id);
+                if (nfaState.characters.test(codePoint)) {
+                    addClosure(nfaState.next, closure);
+                }
+            }
+            next = getDfaState(closure);
+            if (dfaStates.size() < MAX_CACHED_STATES) {
+                state.transitions.put(codePoint, next);
+            }
+        }
+        return next;
+    }
+
+    private DfaState getDfaState(BitSet closure) {
+        DfaState state = dfaStates.get(closure);
+        if (state != null) {
+            return state;
+        }
+        if (dfaStates.size() < MAX_CACHED_STATES) {
+            return dfaStates.computeIfAbsent(closure, this::createDfaState);
+        }
+        return createDfaState(closure);
+    }
+
+    private DfaState createDfaState(BitSet closure) {
+        BitSet accepts = new BitSet();
+        List<Integer> charStates = new ArrayList<>();
+        for (int id = closure.nextSetBit(0); id >= 0; id = closure.nextSetBit(id + 1)) {
+            State state = states.get(id);
+            if (state.characters != null) {
+                charStates.add(id);
+            } else if (state.definition >= 0) {
+                accepts.set(state.definition);
+            }
+        }
+        return new DfaState(charStates.stream().mapToInt(Integer::intValue).toArray(), accepts);
+    }
+
+    // Adds all states which are reachable from the given state without consuming a character
+    private void addClosure(State state, BitSet closure) {
+        Deque<State> stack = new ArrayDeque<>();
+        stack.push(state);
+        while (!stack.isEmpty()) {
+            State current = stack.pop();
+            if (!closure.get(current.id)) {
+                closure.set(current.id);
+                current.epsilons.forEach(stack::push);
+            }
+        }
+    }
+
+    private State newState() {
+        State state = new State(states.size());
+        states.add(state);
+        return state;
+    }
+
+    private static class State {
+        private final int id;
+        // Set for states which consume a character, these states continue with next
+        private IntPredicate characters = null;
+        private State next = null;
+        private final List<State> epsilons = new ArrayList<>(2);
+        // Set for accepting states
+        private int definition = -1;
+
+        private State(int id) {
+            this.id = id;
+        }
+    }
+
+    private static class DfaState {
+        private final int[] charStates;
+        private final BitSet accepts;
+        private final Map<Integer, DfaState> transitions = new ConcurrentHashMap<>();
+
+        private DfaState(int[] charStates, BitSet accepts) {
+            this.charStates = charStates;
+            this.accepts = accepts;
+        }
+
+        private boolean isDead() {
+            return charStates.length == 0 && accepts.isEmpty();
+        }
+    }
+
+    // Syntax tree of a regex. Nodes are compiled backwards: Every node gets the state to continue with.
+    private abstract static class Node {
+        abstract State compile(StepAutomaton automaton, State next);
+    }
+
+    private static class CharacterNode extends Node {
+        private final IntPredicate characters;
+
+        private CharacterNode(IntPredicate characters) {
+            this.characters = characters;
+        }
+
+        @Override
+        State compile(StepAutomaton automaton, State next) {
+            State state = automaton.newState();
+            state.characters = characters;
+            state.next = next;
+            return state;
+        }
+    }
+
+    private static class SequenceNode extends Node {
+        private final List<Node> nodes;
+
+        private SequenceNode(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        @Override
+        State compile(StepAutomaton automaton, State next) {
+            State state = next;
+            for (int i = nodes.size() - 1; i >= 0; i--) {
+                state = nodes.get(i).compile(automaton, state);
+            }
+            return state;
+        }
+    }
+
+    private static class AlternationNode extends Node {
+        private final List<Node> alternatives;
+
+        private AlternationNode(List<Node> alternatives) {
+            this.alternatives = alternatives;
+        }
+
+        @Override
+        State compile(StepAutomaton automaton, State next) {
+            State state = automaton.newState();
+            for (Node alternative : alternatives) {
+                state.epsilons.add(alternative.compile(automaton, next));
+            }
+            return state;
+        }
+    }
+
+    private static class RepetitionNode extends Node {
+        private final Node node;
+        private final int min;
+        // -1 if unbounded
+        private final int max;
+
+        private RepetitionNode(Node node, int min, int max) {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        State compile(StepAutomaton automaton, State next) {
+            State state = next;
+            if (max < 0) {
+                State loop = automaton.newState();
+                loop.epsilons.add(node.compile(automaton, loop));
+                loop.epsilons.add(next);
+                state = loop;
+            } else {
+                for (int i = min; i < max; i++) {
+                    State optional = automaton.newState();
+                    optional.epsilons.add(node.compile(automaton, state));
+                    optional.epsilons.add(next);
+                    state = optional;
+                }
+            }
+            for (int i = 0; i < min; i++) {
+                state = node.compile(automaton, state);
+            }
+            return state;
+        }
+    }
+
+    private static class UnsupportedRegexException extends Exception {
+        private UnsupportedRegexException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Parses the supported subset of java.util.regex. The regex was already compiled by {@link AnnotationPattern}
+     * so it is known to be valid.
+     */
+    private static class RegexParser {
+
+        private final String regex;
+        private int position = 0;
+        private int end;
+
+        private RegexParser(String regex) {
+            this.regex = regex;
+            this.end = regex.length();
+        }
+
+        private Node parse() throws UnsupportedRegexException {
+            // Anchors at the beginning and the end of the regex have no effect when the whole text has to match
+            if (regex.startsWith("^")) {
+                position++;
+            }
+            if (end > position && regex.charAt(end - 1) == '$' && !isEscaped(end - 1)) {
+                end--;
+            }
+            Node node = parseAlternation();
+            if (position != end) {
+                throw new UnsupportedRegexException("Unexpected character at position " + position);
+            }
+            return node;
+        }
+
+        private boolean isEscaped(int index) {
+            int backslashes = 0;
+            for (int i = index - 1; i >= 0 && regex.charAt(i) == '\\'; i--) {
+                backslashes++;
+            }
+            return backslashes % 2 == 1;
+        }
+
+        private Node parseAlternation() throws UnsupportedRegexException {
+            List<Node> alternatives = new ArrayList<>();
+            alternatives.add(parseSequence());
+            while (position < end && regex.charAt(position) == '|') {
+                position++;
+                alternatives.add(parseSequence());
+            }
+            return alternatives.size() == 1 ? alternatives.get(0) : new AlternationNode(alternatives);
+        }
+
+        private Node parseSequence() throws UnsupportedRegexException {
+            List<Node> nodes = new ArrayList<>();
+            while (position < end && regex.charAt(position) != '|' && regex.charAt(position) != ')') {
+                nodes.add(parseQuantifier(parseAtom()));
+            }
+            return nodes.size() == 1 ? nodes.get(0) : new SequenceNode(nodes);
+        }
+
+        private Node parseAtom() throws UnsupportedRegexException {
+            char c = regex.charAt(position);
+            switch (c) {
+                case '(':
+                    position++;
+                    if (regex.startsWith("?:", position)) {
+                        position += 2;
+                    } else if (regex.startsWith("?<", position) && position + 2 < end
+                            && Character.isLetter(regex.charAt(position + 2))) {
+                        // Named groups are matched like any other group
+                        position = regex.indexOf('>', position) + 1;
+                    } else if (regex.startsWith("?", position)) {
+                        throw new UnsupportedRegexException("Special group at position " + position);
+                    }
+                    Node group = parseAlternation();
+                    if (position >= end || regex.charAt(position) != ')') {
+                        throw new UnsupportedRegexException("Unclosed group");
+                    }
+                    position++;
+                    return group;
+                case '[':
+                    position++;
+                    return new CharacterNode(parseCharacterClass());
+                case '.':
+                    position++;
+                    return new CharacterNode(DOT);
+                case '\\':
+                    position++;
+                    return new CharacterNode(parseEscape());
+                case '^':
+                case '$':
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    throw new UnsupportedRegexException(String.format("'%s' at position %d", c, position));
+                default:
+                    int codePoint = regex.codePointAt(position);
+                    position += Character.charCount(codePoint);
+                    return new CharacterNode(single(codePoint));
+            }
+        }
+
+        private Node parseQuantifier(Node node) throws UnsupportedRegexException {
+            if (position >= end) {
+                return node;
+            }
+            int min;
+            int max;
+            switch (regex.charAt(position)) {
+                case '*':
+                    min = 0;
+                    max = -1;
+                    position++;
+                    break;
+                case '+':
+                    min = 1;
+                    max = -1;
+                    position++;
+                    break;
+                case '?':
+                    min = 0;
+                    max = 1;
+                    position++;
+                    break;
+                case '{':
+                    int close = regex.indexOf('}', position);
+                    if (close < 0 || close >= end) {
+                        throw new UnsupportedRegexException("Unclosed repetition");
+                    }
+                    String[] bounds = regex.substring(position + 1, close).split(",", -1);
+                    try {
+                        min = Integer.parseInt(bounds[0].trim());
+                        max = bounds.length == 1 ? min : bounds[1].trim().isEmpty() ? -1 : Integer.parseInt(bounds[1].trim());
+                    } catch (NumberFormatException e) {
+                        throw new UnsupportedRegexException("Invalid repetition " + regex.substring(position, close + 1));
+                    }
+                    if (bounds.length > 2 || min > MAX_REPETITIONS || max > MAX_REPETITIONS) {
+                        throw new UnsupportedRegexException("Repetition too big " + regex.substring(position, close + 1));
+                    }
+                    position = close + 1;
+                    break;
+                default:
+                    return node;
+            }
+            if (position < end && regex.charAt(position) == '?') {
+                // Reluctant quantifiers only change which groups are captured but not whether the text matches
+                position++;
+            } else if (position < end && regex.charAt(position) == '+') {
+                throw new UnsupportedRegexException("Possessive quantifier at position " + position);
+            }
+            if (position < end && "*+?{".indexOf(regex.charAt(position)) >= 0) {
+                throw new UnsupportedRegexException("Nested quantifier at position " + position);
+            }
+            return new RepetitionNode(node, min, max);
+        }
+
+        private IntPredicate parseCharacterClass() throws UnsupportedRegexException {
+            boolean negated = false;
+            if (position < end && regex.charAt(position) == '^') {
+                negated = true;
+                position++;
+            }
+            if (position < end && regex.charAt(position) == ']') {
+                throw new UnsupportedRegexException("Closing bracket at start of character class");
+            }
+            IntPredicate characters = c -> false;
+            while (true) {
+                if (position >= end) {
+                    throw new UnsupportedRegexException("Unclosed character class");
+                }
+                char c = regex.charAt(position);
+                if (c == ']') {
+                    position++;
+                    break;
+                }
+                if (c == '[' || regex.startsWith("&&", position)) {
+                    throw new UnsupportedRegexException("Nested character class at position " + position);
+                }
+                int from = parseClassCharacter();
+                IntPredicate item;
+                if (from < 0) {
+                    item = parsePredefinedClass(regex.charAt(position - 1));
+                } else if (position + 1 < end && regex.charAt(position) == '-' && regex.charAt(position + 1) != ']') {
+                    position++;
+                    int to = parseClassCharacter();
+                    if (to < 0) {
+                        throw new UnsupportedRegexException("Predefined class in range at position " + position);
+                    }
+                    item = c2 -> c2 >= from && c2 <= to;
+                } else {
+                    item = single(from);
+                }
+                characters = characters.or(item);
+            }
+            return negated ? characters.negate() : characters;
+        }
+
+        // Returns the literal code point or -1 if the character is a predefined class like \d
+        private int parseClassCharacter() throws UnsupportedRegexException {
+            int codePoint = regex.codePointAt(position);
+            position += Character.charCount(codePoint);
+            if (codePoint != '\\') {
+                return codePoint;
+            }
+            if (position >= end) {
+                throw new UnsupportedRegexException("Trailing backslash");
+            }
+            char escaped = regex.charAt(position++);
+            if ("dDwWsS".indexOf(escaped) >= 0) {
+                return -1;
+            }
+            return parseEscapedLiteral(escaped);
+        }
+
+        private IntPredicate parseEscape() throws UnsupportedRegexException {
+            if (position >= end) {
+                throw new UnsupportedRegexException("Trailing backslash");
+            }
+            char escaped = regex.charAt(position++);
+            if ("dDwWsS".indexOf(escaped) >= 0) {
+                return parsePredefinedClass(escaped);
+            }
+            return single(parseEscapedLiteral(escaped));
+        }
+
+        private int parseEscapedLiteral(char escaped) throws UnsupportedRegexException {
+            switch (escaped) {
+                case 't':
+                    return '\t';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 'f':
+                    return '\f';
+                default:
+                    if (Character.isLetterOrDigit(escaped)) {
+                        throw new UnsupportedRegexException("Escape sequence \\" + escaped);
+                    }
+                    return escaped;
+            }
+        }
+
+        private static IntPredicate parsePredefinedClass(char escaped) {
+            switch (escaped) {
+                case 'd':
+                    return DIGIT;
+                case 'D':
+                    return DIGIT.negate();
+                case 'w':
+                    return WORD;
+                case 'W':
+                    return WORD.negate();
+                case 's':
+                    return WHITESPACE;
+                default:
+                    return WHITESPACE.negate();
+            }
+        }
+
+        private static IntPredicate single(int codePoint) {
+            return c -> c == codePoint;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import com.wire.qa.picklejar.engine.LifecycleHooks;
+import com.wire.qa.picklejar.engine.PicklejarConfiguration;
+
+/**
+ * Keeps what was found in the step classes by the last discovery of one engine instance. It is reused as long as the
+ * configuration and the context classloader are the same, e.g. for reruns of failed tests or in watch mode. Changed
+ * step classes are only visible through a new classloader anyway, which replaces the cached one.
+ * <p>
+ * The cache belongs to the engine instance instead of the JVM so that the step classes and their classloader can be
+ * garbage collected together with the engine.
+ */
+public class StepClassesCache {
+
+    private static final Logger logger = Logger.getLogger(StepClassesCache.class.getName());
+
+    private List<Object> methodCacheKey = null;
+    private MethodCache methodCache = null;
+    private List<Object> lifecycleHooksKey = null;
+    private LifecycleHooks lifecycleHooks = null;
+
+    synchronized MethodCache getMethodCache(PicklejarConfiguration configuration)
+            throws NoSuchMethodException, IllegalAccessException, InvocationTargetException {
+        List<Object> key = Arrays.asList(configuration.getStepsPackageNames(),
+                configuration.isStepRegistryEnabled(),
+                configuration.isStepAutomatonEnabled(),
+                configuration.getParameterConverterClassNames(),
+                Thread.currentThread().getContextClassLoader());
+        if (methodCache == null || !key.equals(methodCacheKey)) {
+            // Released first so that the previous step classes can be collected while the new ones are loaded
+            methodCache = null;
+            methodCacheKey = null;
+            methodCache = new MethodCache(configuration.getStepsPackageNames(),
+                    configuration.isStepRegistryEnabled(),
+                    configuration.isStepAutomatonEnabled(),
+                    configuration.getParameterConverterClassNames());
+            methodCacheKey = key;
+        } else {
+            logger.info("[Discovery] Steps: Reusing MethodCache of previous discovery");
+        }
+        return methodCache;
+    }
+
+    synchronized LifecycleHooks getLifecycleHooks(PicklejarConfiguration configuration) {
+        List<Object> key = Arrays.asList(configuration.getStepsPackageNames(),
+                Thread.currentThread().getContextClassLoader());
+        if (lifecycleHooks == null || !key.equals(lifecycleHooksKey)) {
+            lifecycleHooks = null;
+            lifecycleHooksKey = null;
+            lifecycleHooks = LifecycleHooks.scan(configuration.getStepsPackageNames());
+            lifecycleHooksKey = key;
+        }
+        return lifecycleHooks;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+
+import com.wire.qa.picklejar.engine.annotations.AnnotationPattern;
+
+/**
+ * Preselects the step definitions of the {@link MethodCache} which have to be checked against a step text.
+ */
+interface StepMatcher {
+
+    /**
+     * Returns the step definitions which can match the given step text in the iteration order of the method cache.
+     * Step definitions which are not returned are guaranteed to not match.
+     */
+    List<Map.Entry<AnnotationPattern, Method>> getCandidates(String text);
+}
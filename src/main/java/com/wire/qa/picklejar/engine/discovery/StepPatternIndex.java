@@ -0,0 +1,227 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.wire.qa.picklejar.engine.annotations.AnnotationPattern;
+
+/**
+ * Narrows down the step definitions which have to be checked with their full regex against a step text.
+ * <p>
+ * For every regex the literal prefix (e.g. "User " for "User (.*) is me") is put into a trie and the longest literal
+ * which is required on top level (e.g. " is me") is remembered. A step text can only match a regex when it starts
+ * with the prefix and contains the required literal. The analysis is conservative: Regexes which use constructs that
+ * could change the meaning of literals (flags, top level alternations, quoting, numeric escapes) are always returned
+ * as candidate.
+ * <p>
+ * Candidates are returned in the iteration order of the method cache so that the first match stays the same as
+ * without the index.
+ */
+class StepPatternIndex implements StepMatcher {
+
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+    private static final Pattern UNSUPPORTED = Pattern.compile("\\(\\?[a-zA-Z-]|\\\\[QExuc0-9Nk]");
+
+    private final List<Map.Entry<AnnotationPattern, Method>> definitions;
+    private final String[] requiredLiterals;
+    private final Node root = new Node();
+
+    StepPatternIndex(Map<AnnotationPattern, Method> methodCache) {
+        this.definitions = new ArrayList<>(methodCache.entrySet());
+        this.requiredLiterals = new String[definitions.size()];
+        for (int i = 0; i < definitions.size(); i++) {
+            String regex = definitions.get(i).getKey().getAnnotation();
+            Node node = root;
+            if (isAnalyzable(regex)) {
+                for (char c : literalPrefix(regex).toCharArray()) {
+                    node = node.children.computeIfAbsent(c, key -> new Node());
+                }
+                requiredLiterals[i] = longestRequiredLiteral(regex);
+            }
+            node.definitions.add(i);
+        }
+    }
+
+    @Override
+    public List<Map.Entry<AnnotationPattern, Method>> getCandidates(String text) {
+        BitSet candidates = new BitSet(definitions.size());
+        Node node = root;
+        addCandidates(node, text, candidates);
+        for (int i = 0; i < text.length(); i++) {
+            node = node.children.get(text.charAt(i));
+            if (node == null) {
+                break;
+            }
+            addCandidates(node, text, candidates);
+        }
+        List<Map.Entry<AnnotationPattern, Method>> result = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            result.add(definitions.get(i));
+        }
+        return result;
+    }
+
+    private void addCandidates(Node node, String text, BitSet candidates) {
+        for (int definition : node.definitions) {
+            String requiredLiteral = requiredLiterals[definition];
+            if (requiredLiteral == null || text.contains(requiredLiteral)) {
+                candidates.set(definition);
+            }
+        }
+    }
+
+    private static boolean isAnalyzable(String regex) {
+        return !UNSUPPORTED.matcher(regex).find() && !hasTopLevelAlternation(regex);
+    }
+
+    static String literalPrefix(String regex) {
+        StringBuilder prefix = new StringBuilder();
+        int i = regex.startsWith("^") ? 1 : 0;
+        while (i < regex.length()) {
+            int literal = literalAt(regex, i);
+            if (literal < 0) {
+                break;
+            }
+            int next = i + (regex.charAt(i) == '\\' ? 2 : 1);
+            char quantifier = next < regex.length() ? regex.charAt(next) : 0;
+            if (quantifier == '?' || quantifier == '*' || quantifier == '{') {
+                // The literal is optional
+                break;
+            }
+            prefix.append((char) literal);
+            if (quantifier == '+') {
+                break;
+            }
+            i = next;
+        }
+        return prefix.toString();
+    }
+
+    static String longestRequiredLiteral(String regex) {
+        String longest = "";
+        StringBuilder current = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            int literal = literalAt(regex, i);
+            if (literal >= 0) {
+                int next = i + (c == '\\' ? 2 : 1);
+                char quantifier = next < regex.length() ? regex.charAt(next) : 0;
+                if (quantifier == '?' || quantifier == '*' || quantifier == '{') {
+                    longest = longer(longest, current);
+                    current.setLength(0);
+                } else {
+                    current.append((char) literal);
+                    if (quantifier == '+') {
+                        longest = longer(longest, current);
+                        current.setLength(0);
+                    }
+                }
+                i = next;
+                continue;
+            }
+            longest = longer(longest, current);
+            current.setLength(0);
+            if (c == '(') {
+                i = skipGroup(regex, i);
+            } else if (c == '[') {
+                i = skipCharacterClass(regex, i);
+            } else if (c == '{') {
+                int end = regex.indexOf('}', i);
+                i = end < 0 ? regex.length() : end + 1;
+            } else if (c == '\\') {
+                i += 2;
+            } else {
+                i++;
+            }
+        }
+        longest = longer(longest, current);
+        return longest.isEmpty() ? null : longest;
+    }
+
+    // Returns the literal character at the given position or -1 if there is no literal
+    private static int literalAt(String regex, int i) {
+        char c = regex.charAt(i);
+        if (c == '\\') {
+            if (i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                return regex.charAt(i + 1);
+            }
+            return -1;
+        }
+        return METACHARACTERS.indexOf(c) >= 0 ? -1 : c;
+    }
+
+    private static boolean hasTopLevelAlternation(String regex) {
+        int depth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = skipCharacterClass(regex, i) - 1;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns the position after the closing parenthesis of the group starting at the given position
+    private static int skipGroup(String regex, int start) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = skipCharacterClass(regex, i) - 1;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return regex.length();
+    }
+
+    // Returns the position after the closing bracket of the (possibly nested) character class at the given position
+    private static int skipCharacterClass(String regex, int start) {
+        int depth = 0;
+        for (int i = start; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+                // A closing bracket directly at the start of a class is a literal
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') {
+                    i++;
+                }
+                if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+                    i++;
+                }
+            } else if (c == ']' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return regex.length();
+    }
+
+    private static String longer(String longest, StringBuilder current) {
+        return current.length() > longest.length() ? current.toString() : longest;
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Integer> definitions = new ArrayList<>();
+    }
+}
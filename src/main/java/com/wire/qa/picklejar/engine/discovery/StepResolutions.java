@@ -0,0 +1,53 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.wire.qa.picklejar.engine.descriptor.MethodDescriptor;
+
+/**
+ * Run-wide memo from an expanded step text to its resolved method or to the reason why it could not be resolved.
+ * Every distinct step text is only matched and converted once per discovery, all steps with the same text share
+ * the same {@link MethodDescriptor}.
+ */
+class StepResolutions {
+
+    private final Map<String, Resolution> resolutions = new ConcurrentHashMap<>();
+
+    Resolution resolve(String text, Function<String, Resolution> resolver) {
+        return resolutions.computeIfAbsent(text, resolver);
+    }
+
+    static class Resolution {
+
+        private final MethodDescriptor methodDescriptor;
+        // Creates the error message from the raw step text (before replacing placeholders of examples)
+        private final Function<String, String> failure;
+
+        private Resolution(MethodDescriptor methodDescriptor, Function<String, String> failure) {
+            this.methodDescriptor = methodDescriptor;
+            this.failure = failure;
+        }
+
+        static Resolution resolved(MethodDescriptor methodDescriptor) {
+            return new Resolution(methodDescriptor, null);
+        }
+
+        static Resolution failed(Function<String, String> failure) {
+            return new Resolution(null, failure);
+        }
+
+        boolean isFailed() {
+            return failure != null;
+        }
+
+        MethodDescriptor getMethodDescriptor() {
+            return methodDescriptor;
+        }
+
+        String getFailureMessage(String rawText) {
+            return failure.apply(rawText);
+        }
+    }
+}
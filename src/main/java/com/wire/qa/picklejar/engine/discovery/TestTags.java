@@ -0,0 +1,29 @@
+package com.wire.qa.picklejar.engine.discovery;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.platform.engine.TestTag;
+
+/**
+ * Shares the tag sets of the descriptors of one discovery. All scenarios of a feature (and all rows of an outline)
+ * usually have the same tags, so only one unmodifiable set is kept per distinct list of tag names instead of one set
+ * per descriptor. The sets are only kept as long as the discovered descriptors.
+ */
+class TestTags {
+
+    private final Map<List<String>, Set<TestTag>> tagSets = new ConcurrentHashMap<>();
+
+    Set<TestTag> of(List<String> tagNames) {
+        Set<TestTag> tags = tagSets.get(tagNames);
+        if (tags == null) {
+            tags = tagSets.computeIfAbsent(List.copyOf(tagNames), names -> Collections.unmodifiableSet(
+                    names.stream().map(TestTag::create).collect(Collectors.toSet())));
+        }
+        return tags;
+    }
+}
@@ -1,16 +1,17 @@
 package com.wire.qa.picklejar.engine.exception;
 
-import java.io.File;
+import java.nio.file.Path;
 import java.util.Arrays;
 
 public class DiscoveryException extends RuntimeException {
 
-    public DiscoveryException(String message, File file, int lineNumber) {
+    public DiscoveryException(String message, Path file, int lineNumber) {
         super(message);
+        String fileName = String.valueOf(file.getFileName());
         StackTraceElement[] trace = new StackTraceElement[]{
-                new StackTraceElement(file.getParent() + File.separator,
-                        file.getName(),
-                        file.getName(),
+                new StackTraceElement(file.toAbsolutePath().getParent() + file.getFileSystem().getSeparator(),
+                        fileName,
+                        fileName,
                         lineNumber)
         };
         StackTraceElement[] result = Arrays.copyOf(trace, trace.length + this.getStackTrace().length);
@@ -1,10 +1,10 @@
 package com.wire.qa.picklejar.engine.exception;
 
-import java.io.File;
+import java.nio.file.Path;
 
 public class MethodForStepNotFoundException extends DiscoveryException {
 
-    public MethodForStepNotFoundException(String message, File file, int lineNumber) {
+    public MethodForStepNotFoundException(String message, Path file, int lineNumber) {
         super(message, file, lineNumber);
     }
 
@@ -37,8 +37,13 @@ public class Scenario implements Serializable {
 
     public Scenario(Feature feature, String name, String description, int exampleNum, String keyword, List<Step> steps,
                     List<Tag> tags) {
+        this(feature, name, description, exampleNum, keyword, steps, tags, 1);
+    }
+
+    public Scenario(Feature feature, String name, String description, int exampleNum, String keyword, List<Step> steps,
+                    List<Tag> tags, long line) {
         this.feature = feature;
-        this.line = 1;
+        this.line = line;
         this.name = name.trim();
         this.id = (feature.getName().toLowerCase() + ";" + this.name.toLowerCase()).replaceAll("[^a-zA-Z0-9]", "-")+";;"+exampleNum;
         this.type = "scenario";
@@ -33,7 +33,11 @@ public class Step implements Serializable {
     private List<Comment> comments;
 
     public Step(String keyword, String name) {
-        this.line = 1;
+        this(keyword, name, 1);
+    }
+
+    public Step(String keyword, String name, long line) {
+        this.line = line;
         this.name = name;
         this.keyword = keyword + " ";
         this.match = new Match();
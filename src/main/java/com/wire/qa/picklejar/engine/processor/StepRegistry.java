@@ -0,0 +1,130 @@
+package com.wire.qa.picklejar.engine.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Step definitions generated at compile time by the {@link StepRegistryProcessor}. Every line of the registry file
+ * contains the regex, the name of the step class (not the superclass which declares an inherited method), the method
+ * name and the parameter types of one step definition, separated by tabs. Tabs, line breaks and backslashes inside the fields are escaped with a backslash.
+ */
+public class StepRegistry {
+
+    private static final Logger logger = Logger.getLogger(StepRegistry.class.getName());
+
+    public static final String REGISTRY_RESOURCE = "META-INF/picklejar/step-registry";
+    static final String HEADER = "# picklejar step registry v1";
+
+    private final List<Entry> entries;
+
+    private StepRegistry(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Loads and merges all registry files which are visible to the given class loader.
+     */
+    public static StepRegistry load(ClassLoader classLoader) {
+        List<Entry> entries = new ArrayList<>();
+        try {
+            for (URL url : Collections.list(classLoader.getResources(REGISTRY_RESOURCE))) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+                    if (!HEADER.equals(reader.readLine())) {
+                        logger.warning(() -> "[Discovery] Steps: Ignoring step registry with unknown format: " + url);
+                        continue;
+                    }
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.isEmpty()) {
+                            entries.add(parseEntry(line));
+                        }
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warning(() -> "[Discovery] Steps: Could not read step registry: " + e.getMessage());
+            return new StepRegistry(Collections.emptyList());
+        }
+        return new StepRegistry(entries);
+    }
+
+    /**
+     * Returns the step definitions of all classes in the given package and its subpackages.
+     */
+    public List<Entry> getEntries(String packageName) {
+        return entries.stream()
+                .filter(entry -> entry.getClassName().startsWith(packageName + "."))
+                .collect(Collectors.toList());
+    }
+
+    static String formatEntry(String pattern, String className, String methodName, String parameterTypes) {
+        return String.join("\t", escape(pattern), escape(className), escape(methodName), escape(parameterTypes));
+    }
+
+    static Entry parseEntry(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("Invalid step registry entry: " + line);
+        }
+        return new Entry(unescape(fields[0]), unescape(fields[1]), unescape(fields[2]), unescape(fields[3]));
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                result.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    public static class Entry {
+
+        private final String pattern;
+        private final String className;
+        private final String methodName;
+        private final String parameterTypes;
+
+        private Entry(String pattern, String className, String methodName, String parameterTypes) {
+            this.pattern = pattern;
+            this.className = className;
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        // Comma separated list as expected by ReflectionUtils.findMethod()
+        public String getParameterTypes() {
+            return parameterTypes;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.wire.qa.picklejar.engine.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Writes all step definitions of the compiled step classes into a registry file so that the engine does not need to
+ * scan the classpath for them on startup (see {@link StepRegistry}).
+ * <p>
+ * The same classes and methods as during scanning are taken into account: Classes whose name ends with Step or Steps
+ * and all their methods (including inherited ones) with exactly one annotation from the package io.cucumber.java.en.
+ */
+public class StepRegistryProcessor extends AbstractProcessor {
+
+    private static final Pattern STEP_CLASS_NAME = Pattern.compile("^.*Steps?$");
+    private static final String ANNOTATIONS_PACKAGE_NAME = "io.cucumber.java.en";
+
+    private final Set<String> entries = new LinkedHashSet<>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // Step classes have to be found by name, not by annotation
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!entries.isEmpty()) {
+                writeRegistry();
+            }
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            processType(element);
+        }
+        return false;
+    }
+
+    private void processType(Element element) {
+        if (!element.getKind().isClass() && !element.getKind().isInterface()) {
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        if (STEP_CLASS_NAME.matcher(className).matches()) {
+            // Inherited methods are registered under the step class like when scanning, the superclass might be
+            // outside of the steps packages. Overridden methods of superclasses are skipped.
+            Set<String> signatures = new HashSet<>();
+            TypeElement current = type;
+            while (current != null && !current.getQualifiedName().contentEquals(Object.class.getName())) {
+                for (Element member : current.getEnclosedElements()) {
+                    if (member.getKind() == ElementKind.METHOD) {
+                        processMethod(className, (ExecutableElement) member, signatures);
+                    }
+                }
+                TypeMirror superclass = current.getSuperclass();
+                current = superclass.getKind() == TypeKind.DECLARED
+                        ? (TypeElement) ((DeclaredType) superclass).asElement()
+                        : null;
+            }
+        }
+        for (Element enclosed : type.getEnclosedElements()) {
+            processType(enclosed);
+        }
+    }
+
+    private void processMethod(String className, ExecutableElement method, Set<String> signatures) {
+        String parameterTypes = method.getParameters().stream()
+                .map(VariableElement::asType)
+                .map(this::getTypeName)
+                .collect(Collectors.joining(","));
+        if (!signatures.add(method.getSimpleName() + "(" + parameterTypes + ")")) {
+            return;
+        }
+        List<? extends AnnotationMirror> stepAnnotations = method.getAnnotationMirrors().stream()
+                .filter(this::isStepAnnotation)
+                .collect(Collectors.toList());
+        if (stepAnnotations.size() != 1) {
+            return;
+        }
+        String pattern = getValue(stepAnnotations.get(0));
+        if (pattern == null) {
+            return;
+        }
+        entries.add(StepRegistry.formatEntry(pattern, className, method.getSimpleName().toString(), parameterTypes));
+    }
+
+    private boolean isStepAnnotation(AnnotationMirror annotation) {
+        TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+        return processingEnv.getElementUtils().getPackageOf(annotationType).getQualifiedName()
+                .contentEquals(ANNOTATIONS_PACKAGE_NAME)
+                && annotationType.getEnclosingElement().getKind() == ElementKind.PACKAGE;
+    }
+
+    private static String getValue(AnnotationMirror annotation) {
+        for (ExecutableElement key : annotation.getElementValues().keySet()) {
+            if (key.getSimpleName().contentEquals("value")) {
+                AnnotationValue value = annotation.getElementValues().get(key);
+                return value.getValue() instanceof String ? (String) value.getValue() : null;
+            }
+        }
+        return null;
+    }
+
+    // Returns the name of the type as it is expected by ReflectionUtils.findMethod()
+    private String getTypeName(TypeMirror type) {
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+        if (erasure.getKind() == TypeKind.ARRAY) {
+            return getTypeName(((ArrayType) erasure).getComponentType()) + "[]";
+        }
+        if (erasure.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) erasure).asElement();
+            return processingEnv.getElementUtils().getBinaryName(element).toString();
+        }
+        return erasure.toString();
+    }
+
+    private void writeRegistry() {
+        try {
+            FileObject registry = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", StepRegistry.REGISTRY_RESOURCE);
+            try (Writer writer = registry.openWriter()) {
+                writer.write(StepRegistry.HEADER);
+                writer.write("\n");
+                for (String entry : entries) {
+                    writer.write(entry);
+                    writer.write("\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    String.format("Could not write %s: %s", StepRegistry.REGISTRY_RESOURCE, e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.wire.qa.picklejar.launcher;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+import com.wire.qa.picklejar.engine.descriptor.ScenarioDescriptor;
+import org.junit.platform.commons.util.Preconditions;
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+
+/**
+ * Only includes the scenarios which are affected by a change: Scenarios of changed feature files and scenarios
+ * with at least one step that is implemented in a changed class.
+ */
+public final class ChangedScenarioFilter {
+
+    private ChangedScenarioFilter() {
+        /* no-op */
+    }
+
+    public static PostDiscoveryFilter includeChanged(Set<Path> featureFiles, Set<String> classNames) {
+        Preconditions.notNull(featureFiles, "set of feature files must not be null");
+        Preconditions.notNull(classNames, "set of class names must not be null");
+        return descriptor -> {
+            if (!(descriptor instanceof ScenarioDescriptor)) {
+                return FilterResult.excluded("Not a scenario");
+            }
+            ScenarioDescriptor scenarioDescriptor = (ScenarioDescriptor) descriptor;
+            return FilterResult.includedIf(featureFiles.contains(scenarioDescriptor.getFile().toAbsolutePath())
+                    || scenarioDescriptor.getStepDescriptors().stream()
+                    .map(stepDescriptor -> stepDescriptor.getMethodDescriptor().getMethod().getDeclaringClass().getName())
+                    .anyMatch(classNames::contains));
+        };
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.wire.qa.picklejar.launcher;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
@@ -10,12 +11,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import com.wire.qa.picklejar.engine.PicklejarConfiguration;
 import com.wire.qa.picklejar.engine.PicklejarEngine;
 import com.wire.qa.picklejar.launcher.listeners.CucumberReportGeneratingListener;
 import com.wire.qa.picklejar.launcher.listeners.FailedTestListener;
 import com.wire.qa.picklejar.launcher.listeners.LegacyXmlReportGeneratingListener;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
 import org.junit.platform.launcher.*;
 import org.junit.platform.launcher.core.LauncherConfig;
 import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
@@ -48,6 +51,24 @@ public class PicklejarLauncher {
     static final LegacyXmlReportGeneratingListener legacyXmlReportListener = new LegacyXmlReportGeneratingListener(xmlReportsDir, out);
 
     public static void main(String[] args) {
+        long finalTestsFailed = run();
+
+        // Fail build on test failures or maven.test.failure.ignore
+        if (finalTestsFailed > 0) {
+            if (System.getProperty("maven.test.failure.ignore") == null
+                    || !Boolean.parseBoolean(System.getProperty("maven.test.failure.ignore"))) {
+                System.exit(1);
+            }
+        }
+
+        // We need to terminate manually here even on success because otherwise okio watchdog makes the maven process
+        // hang because 'exec-maven-plugin' waits for all processes to finish in the VM
+        // See: https://github.com/square/okio/issues/107 and https://github.com/square/okhttp/issues/6173
+        System.exit(0);
+    }
+
+    // Runs the tests including reruns and watch mode and returns the number of tests which failed in the last run
+    static long run() {
         LauncherConfig launcherConfig = LauncherConfig.builder()
                 .enableTestEngineAutoRegistration(false)
                 .enableTestExecutionListenerAutoRegistration(false)
@@ -58,8 +79,6 @@ public class PicklejarLauncher {
         LauncherDiscoveryRequestBuilder builder = LauncherDiscoveryRequestBuilder.request();
 
         String testProperty = System.getProperty("test");
-        String tags = System.getProperty("picklejar.tags");
-        String excludeTags = System.getProperty("picklejar.exclude.tags");
 
         if (testProperty != null && !testProperty.isEmpty()) {
             // Deflake tests by parsing test property and filtering via uniqueIds
@@ -68,16 +87,10 @@ public class PicklejarLauncher {
             for (String id : uniqueIds) {
                 logger.info(id);
             }
-            builder.selectors(selectPackage(getPicklejarConfiguration().getFeaturesPackageName()));
-            builder.filters(UniqueIdFilter.includeIds(uniqueIds));
+            selectUniqueIds(builder, uniqueIds);
         } else {
             builder.selectors(selectPackage(getPicklejarConfiguration().getFeaturesPackageName()));
-            if (tags != null) {
-                builder.filters(TagFilter.includeTags(tags.split(",")));
-            }
-            if (excludeTags != null && !excludeTags.isEmpty()) {
-                builder.filters(TagFilter.excludeTags(excludeTags.split(",")));
-            }
+            withTags(builder);
         }
 
         launcher.execute(builder.build(), legacyXmlReportListener, cucumberReportGeneratingListener, failedTestListener,
@@ -128,22 +141,22 @@ public class PicklejarLauncher {
         logger.info(line);
         logger.info(String.join("", Collections.nCopies(line.length(), "-")));
 
-        // Fail build on test failures or maven.test.failure.ignore
-        if (finalTestsFailed > 0) {
-            if (System.getProperty("maven.test.failure.ignore") == null
-                    || !Boolean.parseBoolean(System.getProperty("maven.test.failure.ignore"))) {
-                System.exit(1);
+        // Keep the JVM running and rerun affected scenarios on every change until the process is stopped
+        if (Boolean.getBoolean("picklejar.watch")) {
+            try {
+                new WatchMode(launcher, getPicklejarConfiguration(), legacyXmlReportListener,
+                        cucumberReportGeneratingListener, failedTestListener).run();
+            } catch (IOException e) {
+                logger.severe("[Watch] Cannot watch for changes: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
-
-        // We need to terminate manually here even on success because otherwise okio watchdog makes the maven process
-        // hang because 'exec-maven-plugin' waits for all processes to finish in the VM
-        // See: https://github.com/square/okio/issues/107 and https://github.com/square/okhttp/issues/6173
-        System.exit(0);
+        return finalTestsFailed;
     }
 
     private static LauncherDiscoveryRequest buildLauncherDiscoveryRequestForRerunFailures(FailedTestListener failedTestListener) {
-        LauncherDiscoveryRequestBuilder builder = request();
+        LauncherDiscoveryRequestBuilder builder = withTags(request());
 
         List<String> uniqueIds = new ArrayList<>();
 
@@ -154,11 +167,35 @@ public class PicklejarLauncher {
             uniqueIds.add(uniqueId);
         }
 
-        builder.selectors(selectPackage(getPicklejarConfiguration().getFeaturesPackageName()));
-        builder.filters(UniqueIdFilter.includeIds(uniqueIds));
+        selectUniqueIds(builder, uniqueIds);
         return builder.build();
     }
 
+    /*
+    Selecting the UniqueIds (instead of the whole features package) lets the engine read and resolve only the feature
+    files of the selected scenarios. The filter removes the other scenarios of these features afterwards.
+     */
+    private static void selectUniqueIds(LauncherDiscoveryRequestBuilder builder, List<String> uniqueIds) {
+        builder.selectors(uniqueIds.stream().map(DiscoverySelectors::selectUniqueId).collect(Collectors.toList()));
+        builder.filters(UniqueIdFilter.includeIds(uniqueIds));
+    }
+
+    /*
+    Tags are evaluated by the engine during discovery instead of filtering the discovered tests afterwards. So every
+    request of the launcher (first run, reruns of failed tests and watch mode) has to pass them on.
+     */
+    static LauncherDiscoveryRequestBuilder withTags(LauncherDiscoveryRequestBuilder builder) {
+        String tags = System.getProperty("picklejar.tags");
+        String excludeTags = System.getProperty("picklejar.exclude.tags");
+        if (tags != null) {
+            builder.configurationParameter(PicklejarConfiguration.INCLUDE_TAGS_PROPERTY_NAME, tags);
+        }
+        if (excludeTags != null && !excludeTags.isEmpty()) {
+            builder.configurationParameter(PicklejarConfiguration.EXCLUDE_TAGS_PROPERTY_NAME, excludeTags);
+        }
+        return builder;
+    }
+
     private static PicklejarConfiguration getPicklejarConfiguration() {
         return new PicklejarConfiguration(request().build().getConfigurationParameters());
     }
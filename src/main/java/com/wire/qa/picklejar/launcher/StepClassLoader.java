@@ -0,0 +1,58 @@
+package com.wire.qa.picklejar.launcher;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Disposable classloader which loads the classes of the steps packages itself instead of asking its parent first.
+ * This way recompiled step classes become visible without restarting the JVM. All other classes and all resources
+ * are taken from the parent.
+ */
+public class StepClassLoader extends URLClassLoader {
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final List<String> stepsPackages;
+
+    public StepClassLoader(URL[] stepClassRoots, ClassLoader parent, List<String> stepsPackages) {
+        super(stepClassRoots, parent);
+        this.stepsPackages = stepsPackages;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!isStepClass(name)) {
+            return super.loadClass(name, resolve);
+        }
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loadedClass = findLoadedClass(name);
+            if (loadedClass == null) {
+                try {
+                    loadedClass = findClass(name);
+                } catch (ClassNotFoundException e) {
+                    return super.loadClass(name, resolve);
+                }
+            }
+            if (resolve) {
+                resolveClass(loadedClass);
+            }
+            return loadedClass;
+        }
+    }
+
+    // Resources are only returned by the parent, otherwise the steps packages would be found twice when scanning
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException {
+        return Collections.emptyEnumeration();
+    }
+
+    private boolean isStepClass(String name) {
+        return stepsPackages.stream().anyMatch(stepsPackage -> name.startsWith(stepsPackage + "."));
+    }
+}
@@ -0,0 +1,247 @@
+package com.wire.qa.picklejar.launcher;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.wire.qa.picklejar.engine.PicklejarConfiguration;
+import com.wire.qa.picklejar.engine.annotations.Scoped;
+import com.wire.qa.picklejar.engine.discovery.FeatureFileFilter;
+import com.wire.qa.picklejar.engine.discovery.ResourceSeeker;
+import org.junit.platform.commons.util.ReflectionUtils;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectFile;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectPackage;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+/**
+ * Keeps the JVM running after the first run and reruns only the scenarios which are affected by a change.
+ * <p>
+ * The feature and step package folders on the classpath are watched (usually target/test-classes, so the IDE or build
+ * tool has to copy changed feature files and compile changed step classes). A changed feature file is rediscovered
+ * on its own through a FileSelector. When step classes changed they are loaded again through a new disposable
+ * {@link StepClassLoader} and all scenarios using a step method of one of the changed classes are rerun. If a changed
+ * class can affect any scenario (e.g. a lifecycle class or an injected helper) all scenarios are rerun.
+ * <p>
+ * Which features use a changed class is only known after their steps were resolved again, so after a class change all
+ * features are rediscovered and the {@link ChangedScenarioFilter} selects the affected scenarios afterwards. With the
+ * discovery cache enabled the features are rebuilt from the cache as long as no regex of the step definitions changed.
+ */
+public class WatchMode {
+
+    private static final Logger logger = Logger.getLogger(WatchMode.class.getName());
+
+    // Editors and compilers write several files at once so events are collected until no new event arrives
+    private static final long QUIET_PERIOD_MILLIS = 100;
+    private static final String CLASS_EXTENSION = ".class";
+    private static final String STEP_ANNOTATIONS_PACKAGE = "io.cucumber.java.en";
+
+    private final Launcher launcher;
+    private final PicklejarConfiguration configuration;
+    private final TestExecutionListener[] listeners;
+    private final ClassLoader originalClassLoader;
+    private final Set<Path> featureFolders;
+    private final Map<Path, Path> stepClassRoots = new HashMap<>();
+    private final Map<WatchKey, Path> watchedFolders = new HashMap<>();
+    private StepClassLoader stepClassLoader = null;
+
+    public WatchMode(Launcher launcher, PicklejarConfiguration configuration, TestExecutionListener... listeners) {
+        this.launcher = launcher;
+        this.configuration = configuration;
+        this.listeners = listeners;
+        this.originalClassLoader = Thread.currentThread().getContextClassLoader();
+        this.featureFolders = onDefaultFileSystem(configuration.getFeaturesPackagePaths());
+        for (String stepsPackage : configuration.getStepsPackageNames()) {
+            for (Path folder : onDefaultFileSystem(ResourceSeeker.getResourceDirectoriesFromPackage(stepsPackage))) {
+                // Go up one folder per package segment to get the classpath root of the step classes
+                Path root = folder;
+                for (int i = 0; i < stepsPackage.split("\\.").length; i++) {
+                    root = root.getParent();
+                }
+                stepClassRoots.put(folder, root);
+            }
+        }
+    }
+
+    public void run() throws IOException, InterruptedException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            for (Path folder : featureFolders) {
+                register(watchService, folder);
+            }
+            for (Path folder : stepClassRoots.keySet()) {
+                register(watchService, folder);
+            }
+            logger.info(() -> String.format("[Watch] Watching %d folder(s) for changes, stop with Ctrl+C",
+                    watchedFolders.size()));
+            while (true) {
+                Set<Path> changedFiles = new LinkedHashSet<>();
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    collectChanges(watchService, key, changedFiles);
+                    key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                rerun(changedFiles);
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+            if (stepClassLoader != null) {
+                stepClassLoader.close();
+            }
+        }
+    }
+
+    private void collectChanges(WatchService watchService, WatchKey key, Set<Path> changedFiles) throws IOException {
+        Path folder = watchedFolders.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || folder == null) {
+                continue;
+            }
+            Path file = folder.resolve((Path) event.context());
+            // WatchService is not recursive so new sub folders have to be registered as well
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(file)) {
+                register(watchService, file);
+            } else {
+                changedFiles.add(file);
+            }
+        }
+        if (!key.reset()) {
+            watchedFolders.remove(key);
+        }
+    }
+
+    /**
+     * Reruns the scenarios which are affected by the given changed feature files and class files.
+     */
+    public void rerun(Set<Path> changedFiles) throws IOException {
+        Set<Path> changedFeatures = changedFiles.stream()
+                .filter(file -> file.getFileName().toString().endsWith(FeatureFileFilter.EXTENSION))
+                .filter(file -> featureFolders.stream().anyMatch(file::startsWith))
+                .filter(Files::isRegularFile)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<String> changedClasses = changedFiles.stream()
+                .filter(file -> file.getFileName().toString().endsWith(CLASS_EXTENSION))
+                .map(this::toClassName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (changedFeatures.isEmpty() && changedClasses.isEmpty()) {
+            logger.fine(() -> "[Watch] Nothing to rerun for changed files " + changedFiles);
+            return;
+        }
+
+        long start = System.nanoTime();
+        LauncherDiscoveryRequest request;
+        if (changedClasses.isEmpty()) {
+            logger.info(() -> "[Watch] Rediscover changed feature(s): " + changedFeatures);
+            request = PicklejarLauncher.withTags(request())
+                    .selectors(changedFeatures.stream().map(file -> selectFile(file.toFile())).toArray(DiscoverySelector[]::new))
+                    .build();
+        } else {
+            logger.info(() -> "[Watch] Reload changed step class(es): " + changedClasses);
+            reloadStepClasses();
+            LauncherDiscoveryRequestBuilder builder = PicklejarLauncher.withTags(request())
+                    .selectors(selectPackage(configuration.getFeaturesPackageName()));
+            if (changedClasses.stream().allMatch(this::isOnlyUsedThroughStepMethods)) {
+                builder.filters(ChangedScenarioFilter.includeChanged(changedFeatures, changedClasses));
+            } else {
+                logger.info("[Watch] Changed class(es) can affect any scenario, rerun all scenarios");
+            }
+            request = builder.build();
+        }
+
+        SummaryGeneratingListener summaryGeneratingListener = new SummaryGeneratingListener();
+        TestExecutionListener[] allListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        allListeners[listeners.length] = summaryGeneratingListener;
+        try {
+            launcher.execute(request, allListeners);
+        } catch (RuntimeException e) {
+            // Keep watching, the next change might fix the problem (e.g. an unparseable feature file)
+            logger.warning(() -> "[Watch] Rerun failed: " + e.getMessage());
+            return;
+        }
+        logger.info(() -> String.format("[Watch] Rerun %d scenario(s) in %d ms, Failures: %d",
+                summaryGeneratingListener.getSummary().getTestsFoundCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                summaryGeneratingListener.getSummary().getTestsFailedCount()));
+    }
+
+    private void reloadStepClasses() throws IOException {
+        URL[] urls = stepClassRoots.values().stream().distinct().map(root -> {
+            try {
+                return root.toUri().toURL();
+            } catch (MalformedURLException e) {
+                throw new IllegalStateException(e);
+            }
+        }).toArray(URL[]::new);
+        StepClassLoader previousClassLoader = stepClassLoader;
+        stepClassLoader = new StepClassLoader(urls, originalClassLoader, configuration.getStepsPackageNames());
+        // The engine picks up the step classes through the context classloader
+        Thread.currentThread().setContextClassLoader(stepClassLoader);
+        if (previousClassLoader != null) {
+            previousClassLoader.close();
+        }
+    }
+
+    /*
+    Only scenarios using a step method of a changed class are rerun. This is not enough for lifecycle classes, injected
+    helpers, TestContext subclasses and deleted classes, they can affect any scenario. Step classes annotated with
+    Scoped can be injected into other step classes as well.
+     */
+    private boolean isOnlyUsedThroughStepMethods(String className) {
+        return ReflectionUtils.tryToLoadClass(className, stepClassLoader).toOptional()
+                .filter(clazz -> !clazz.isAnnotationPresent(Scoped.class))
+                .map(clazz -> Arrays.stream(clazz.getDeclaredMethods())
+                        .flatMap(method -> Arrays.stream(method.getAnnotations()))
+                        .anyMatch(annotation -> annotation.annotationType().getPackageName().equals(STEP_ANNOTATIONS_PACKAGE)))
+                .orElse(false);
+    }
+
+    // Returns the binary name of a class file in one of the steps packages or null if it is none
+    private String toClassName(Path classFile) {
+        for (Map.Entry<Path, Path> entry : stepClassRoots.entrySet()) {
+            if (classFile.startsWith(entry.getKey())) {
+                List<String> segments = new ArrayList<>();
+                entry.getValue().relativize(classFile).forEach(segment -> segments.add(segment.toString()));
+                String className = String.join(".", segments);
+                return className.substring(0, className.length() - CLASS_EXTENSION.length());
+            }
+        }
+        return null;
+    }
+
+    private void register(WatchService watchService, Path folder) throws IOException {
+        try (Stream<Path> folders = Files.walk(folder)) {
+            for (Path subFolder : folders.filter(Files::isDirectory).collect(Collectors.toList())) {
+                watchedFolders.put(subFolder.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), subFolder);
+            }
+        }
+    }
+
+    // Folders inside of JARs cannot change and cannot be watched
+    private static Set<Path> onDefaultFileSystem(Set<Path> folders) {
+        return folders.stream()
+                .filter(folder -> folder.getFileSystem().equals(FileSystems.getDefault()))
+                .map(Path::toAbsolutePath)
+                .collect(Collectors.toSet());
+    }
+}
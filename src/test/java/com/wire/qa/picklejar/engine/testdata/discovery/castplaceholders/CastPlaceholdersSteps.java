@@ -1,7 +1,12 @@
 package com.wire.qa.picklejar.engine.testdata.discovery.castplaceholders;
 
+import java.time.Duration;
+import java.util.UUID;
+
 import io.cucumber.java.en.Given;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 public class CastPlaceholdersSteps {
 
     public CastPlaceholdersSteps() {
@@ -42,4 +47,38 @@ public class CastPlaceholdersSteps {
     public void booleanParameter(boolean parameter) {
 
     }
+
+    @Given("^Step with (\\d+) as short parameter$")
+    public void shortParameter(short parameter) {
+        assertThat(parameter).isEqualTo((short) 12);
+    }
+
+    @Given("^Step with (\\d+) as byte parameter$")
+    public void byteParameter(Byte parameter) {
+        assertThat(parameter).isEqualTo((byte) 7);
+    }
+
+    @Given("^Step with (.) as char parameter$")
+    public void charParameter(char parameter) {
+        assertThat(parameter).isEqualTo('x');
+    }
+
+    @Given("^Step with (.*) as enum parameter$")
+    public void enumParameter(Color parameter) {
+        assertThat(parameter).isEqualTo(Color.GREEN);
+    }
+
+    @Given("^Step with (.*) as uuid parameter$")
+    public void uuidParameter(UUID parameter) {
+        assertThat(parameter).isEqualTo(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"));
+    }
+
+    @Given("^Step with (.*) as duration parameter$")
+    public void durationParameter(Duration parameter) {
+        assertThat(parameter).isEqualTo(Duration.ofSeconds(5));
+    }
+
+    public enum Color {
+        RED, GREEN
+    }
 }
@@ -0,0 +1,15 @@
+package com.wire.qa.picklejar.engine.testdata.discovery.outlineplaceholders;
+
+import io.cucumber.java.en.Given;
+
+public class OutlinePlaceholdersSteps {
+
+    public OutlinePlaceholdersSteps() {
+
+    }
+
+    @Given("^Step with (.*) as outline text$")
+    public void outlineText(String text) {
+
+    }
+}
@@ -0,0 +1,20 @@
+package com.wire.qa.picklejar.engine.testdata.discovery.parameterconverter;
+
+public class Email {
+
+    private final String user;
+    private final String domain;
+
+    public Email(String user, String domain) {
+        this.user = user;
+        this.domain = domain;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getDomain() {
+        return domain;
+    }
+}
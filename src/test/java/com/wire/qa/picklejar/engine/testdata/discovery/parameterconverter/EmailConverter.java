@@ -0,0 +1,20 @@
+package com.wire.qa.picklejar.engine.testdata.discovery.parameterconverter;
+
+import com.wire.qa.picklejar.engine.discovery.ParameterConverter;
+
+public class EmailConverter implements ParameterConverter {
+
+    @Override
+    public boolean supports(Class<?> type) {
+        return type == Email.class;
+    }
+
+    @Override
+    public Object convert(String value, Class<?> type) {
+        String[] parts = value.split("@");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Not an email address: " + value);
+        }
+        return new Email(parts[0], parts[1]);
+    }
+}
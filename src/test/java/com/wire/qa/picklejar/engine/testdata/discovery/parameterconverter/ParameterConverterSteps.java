@@ -0,0 +1,18 @@
+package com.wire.qa.picklejar.engine.testdata.discovery.parameterconverter;
+
+import io.cucumber.java.en.Given;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParameterConverterSteps {
+
+    public ParameterConverterSteps() {
+
+    }
+
+    @Given("^User (.*) is logged in$")
+    public void userIsLoggedIn(Email email) {
+        assertThat(email.getUser()).isEqualTo("alice");
+        assertThat(email.getDomain()).isEqualTo("wire.com");
+    }
+}
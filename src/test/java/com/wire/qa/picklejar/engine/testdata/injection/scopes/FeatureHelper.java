@@ -0,0 +1,22 @@
+package com.wire.qa.picklejar.engine.testdata.injection.scopes;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.wire.qa.picklejar.engine.Scope;
+import com.wire.qa.picklejar.engine.annotations.Scoped;
+
+@Scoped(Scope.FEATURE)
+public class FeatureHelper implements AutoCloseable {
+
+    public static final AtomicInteger created = new AtomicInteger();
+    public static final AtomicInteger closed = new AtomicInteger();
+
+    public FeatureHelper() {
+        created.incrementAndGet();
+    }
+
+    @Override
+    public void close() {
+        closed.incrementAndGet();
+    }
+}
@@ -0,0 +1,23 @@
+package com.wire.qa.picklejar.engine.testdata.injection.scopes;
+
+import com.wire.qa.picklejar.engine.TestContext;
+import com.wire.qa.picklejar.engine.annotations.AfterEachScenario;
+import com.wire.qa.picklejar.engine.gherkin.model.Scenario;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LifeCycle {
+
+    private final ScenarioHelper scenarioHelper;
+
+    public LifeCycle(ScenarioHelper scenarioHelper) {
+        this.scenarioHelper = scenarioHelper;
+    }
+
+    @AfterEachScenario
+    public void afterScenario(TestContext context, Scenario scenario) {
+        // The scenario scope is closed after this hook
+        assertThat(ScenarioHelper.closed.get()).isLessThan(ScenarioHelper.created.get());
+        assertThat(scenarioHelper).isNotNull();
+    }
+}
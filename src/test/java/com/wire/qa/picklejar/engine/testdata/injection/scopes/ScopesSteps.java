@@ -0,0 +1,25 @@
+package com.wire.qa.picklejar.engine.testdata.injection.scopes;
+
+import io.cucumber.java.en.Given;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScopesSteps {
+
+    private final RunHelper runHelper;
+    private final FeatureHelper featureHelper;
+    private final ScenarioHelper scenarioHelper;
+
+    public ScopesSteps(RunHelper runHelper, FeatureHelper featureHelper, ScenarioHelper scenarioHelper) {
+        this.runHelper = runHelper;
+        this.featureHelper = featureHelper;
+        this.scenarioHelper = scenarioHelper;
+    }
+
+    @Given("Step with injected helpers")
+    public void step() {
+        assertThat(runHelper).isNotNull();
+        assertThat(featureHelper).isNotNull();
+        assertThat(scenarioHelper).isNotNull();
+    }
+}
@@ -0,0 +1,25 @@
+package com.wire.qa.picklejar.engine.testdata.injection.scopes;
+
+import com.wire.qa.picklejar.engine.Scope;
+import com.wire.qa.picklejar.engine.annotations.Scoped;
+import io.cucumber.java.en.Given;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Scoped(Scope.STEP)
+public class StepScopedSteps {
+
+    private final ScenarioHelper scenarioHelper;
+    private final StepHelper stepHelper;
+
+    public StepScopedSteps(ScenarioHelper scenarioHelper, StepHelper stepHelper) {
+        this.scenarioHelper = scenarioHelper;
+        this.stepHelper = stepHelper;
+    }
+
+    @Given("Step with step scoped helper")
+    public void step() {
+        assertThat(scenarioHelper).isNotNull();
+        assertThat(stepHelper).isNotNull();
+    }
+}
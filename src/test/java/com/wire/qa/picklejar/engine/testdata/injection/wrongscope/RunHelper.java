@@ -0,0 +1,12 @@
+package com.wire.qa.picklejar.engine.testdata.injection.wrongscope;
+
+import com.wire.qa.picklejar.engine.Scope;
+import com.wire.qa.picklejar.engine.annotations.Scoped;
+
+@Scoped(Scope.RUN)
+public class RunHelper {
+
+    public RunHelper(ScenarioHelper scenarioHelper) {
+
+    }
+}
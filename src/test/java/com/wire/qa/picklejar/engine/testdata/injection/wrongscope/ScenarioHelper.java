@@ -0,0 +1,9 @@
+package com.wire.qa.picklejar.engine.testdata.injection.wrongscope;
+
+import com.wire.qa.picklejar.engine.Scope;
+import com.wire.qa.picklejar.engine.annotations.Scoped;
+
+@Scoped(Scope.SCENARIO)
+public class ScenarioHelper {
+
+}
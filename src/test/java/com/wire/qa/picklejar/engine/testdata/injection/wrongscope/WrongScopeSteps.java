@@ -0,0 +1,15 @@
+package com.wire.qa.picklejar.engine.testdata.injection.wrongscope;
+
+import io.cucumber.java.en.Given;
+
+public class WrongScopeSteps {
+
+    public WrongScopeSteps(RunHelper runHelper) {
+
+    }
+
+    @Given("Step with wrongly scoped helper")
+    public void step() {
+
+    }
+}
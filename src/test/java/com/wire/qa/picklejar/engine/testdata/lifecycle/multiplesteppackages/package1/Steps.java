@@ -0,0 +1,12 @@
+package com.wire.qa.picklejar.engine.testdata.lifecycle.multiplesteppackages.package1;
+
+import io.cucumber.java.en.Given;
+
+public class Steps {
+
+    @Given("Simple step")
+    public void step() {
+
+    }
+
+}
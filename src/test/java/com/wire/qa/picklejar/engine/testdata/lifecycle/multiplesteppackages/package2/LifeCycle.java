@@ -0,0 +1,23 @@
+package com.wire.qa.picklejar.engine.testdata.lifecycle.multiplesteppackages.package2;
+
+import com.wire.qa.picklejar.engine.TestContext;
+import com.wire.qa.picklejar.engine.annotations.AfterEachStep;
+import com.wire.qa.picklejar.engine.annotations.BeforeEachStep;
+import com.wire.qa.picklejar.engine.gherkin.model.Scenario;
+import com.wire.qa.picklejar.engine.gherkin.model.Step;
+
+public class LifeCycle {
+
+    public static int beforeCounter = 0;
+    public static int afterCounter = 0;
+
+    @BeforeEachStep
+    public void beforeStep(TestContext context, Scenario scenario, Step step) {
+        beforeCounter++;
+    }
+
+    @AfterEachStep
+    public void afterStep(TestContext context, Scenario scenario, Step step) {
+        afterCounter++;
+    }
+}
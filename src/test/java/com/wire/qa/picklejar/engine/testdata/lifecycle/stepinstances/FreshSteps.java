@@ -0,0 +1,28 @@
+package com.wire.qa.picklejar.engine.testdata.lifecycle.stepinstances;
+
+import com.wire.qa.picklejar.engine.annotations.NewInstancePerStep;
+import io.cucumber.java.en.Given;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@NewInstancePerStep
+public class FreshSteps {
+
+    public static int instances = 0;
+
+    private String instanceVariable = null;
+
+    public FreshSteps() {
+        instances++;
+    }
+
+    @Given("Step that sets instance variable of fresh instance")
+    public void setInstanceVariable() {
+        instanceVariable = "newvalue";
+    }
+
+    @Given("Step that expects fresh instance")
+    public void expectFreshInstance() {
+        assertThat(instanceVariable).isNull();
+    }
+}
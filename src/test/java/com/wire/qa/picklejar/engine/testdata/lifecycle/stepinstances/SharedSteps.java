@@ -0,0 +1,26 @@
+package com.wire.qa.picklejar.engine.testdata.lifecycle.stepinstances;
+
+import io.cucumber.java.en.Given;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SharedSteps {
+
+    public static int instances = 0;
+
+    private String instanceVariable = null;
+
+    public SharedSteps() {
+        instances++;
+    }
+
+    @Given("Step that sets instance variable")
+    public void setInstanceVariable() {
+        instanceVariable = "newvalue";
+    }
+
+    @Given("Step that reads instance variable")
+    public void readInstanceVariable() {
+        assertThat(instanceVariable).isEqualTo("newvalue");
+    }
+}
@@ -0,0 +1,12 @@
+package com.wire.qa.picklejar.engine.testdata.lifecycle.wrongparameters;
+
+import com.wire.qa.picklejar.engine.annotations.AfterEachScenario;
+import com.wire.qa.picklejar.engine.gherkin.model.Scenario;
+
+public class LifeCycle {
+
+    @AfterEachScenario
+    public void afterScenario(Scenario scenario) {
+
+    }
+}
@@ -0,0 +1,16 @@
+package com.wire.qa.picklejar.engine.testdata.scenario.bufferedlogging;
+
+import io.cucumber.java.en.Given;
+
+public class BufferedLoggingSteps {
+
+    public BufferedLoggingSteps() {
+
+    }
+
+    @Given("Slow step")
+    public void slowStep() throws InterruptedException {
+        Thread.sleep(20);
+    }
+
+}
@@ -1,30 +1,51 @@
 package com.wire.qa.picklejar.engine.tests;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wire.qa.picklejar.engine.annotations.AnnotationPattern;
 import com.wire.qa.picklejar.engine.discovery.FeatureSelectorResolver;
 import com.wire.qa.picklejar.engine.exception.DiscoveryException;
 import com.wire.qa.picklejar.engine.exception.MethodForStepNotFoundException;
 import com.wire.qa.picklejar.engine.exception.MisconfigurationException;
+import com.wire.qa.picklejar.engine.processor.StepRegistry;
+import com.wire.qa.picklejar.engine.processor.StepRegistryProcessor;
 import com.wire.qa.picklejar.launcher.UniqueIdFilter;
 import gherkin.ParserException;
+import io.cucumber.java.en.When;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.platform.commons.JUnitException;
 import org.junit.platform.commons.PreconditionViolationException;
+import org.junit.platform.engine.UniqueId;
 import org.junit.platform.engine.reporting.ReportEntry;
 import org.junit.platform.launcher.TagFilter;
 import org.junit.platform.testkit.engine.EngineExecutionResults;
 import org.junit.platform.testkit.engine.EngineTestKit;
 
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static com.wire.qa.picklejar.engine.tests.ReportEntryConditions.*;
@@ -89,6 +110,43 @@ public class DiscoveryTests {
         );
     }
 
+    @Test
+    public void tagExpressionsFromConfiguration() {
+        EngineExecutionResults results = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.steps")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.tags")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.tags.include", "@featuretag,@scenariotag2")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.tags.exclude", "@scenariotag1")
+                .selectors(selectPackage(""))
+                .execute();
+
+        results.testEvents().assertStatistics(stats -> stats.started(2).succeeded(2));
+        results.testEvents().succeeded().assertEventsMatchExactly(
+                event(displayName("Scenario 2")),
+                event(displayName("Scenario 3"))
+        );
+        results.containerEvents().assertThatEvents().noneMatch(event -> event.getTestDescriptor().getDisplayName().equals("No Tags"));
+    }
+
+    @Test
+    public void stepsOfExcludedScenariosAreNotDiscovered() {
+        EngineExecutionResults results = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.steps")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.tagsduringdiscovery")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.tags.include", "@smoke")
+                .selectors(selectPackage(""))
+                .execute();
+
+        results.testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+        results.testEvents().succeeded().assertEventsMatchExactly(
+                event(displayName("Included scenario"))
+        );
+    }
+
     @Test
     public void filterByUniqueId() {
         EngineExecutionResults results = EngineTestKit
@@ -140,6 +198,25 @@ public class DiscoveryTests {
         );
     }
 
+    @Test
+    public void uniqueIdOnlyDiscoversSelectedFeatures() {
+        EngineExecutionResults results = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.steps")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.uniqueidindex")
+                .selectors(
+                        selectUniqueId("[engine:picklejar-engine]/[Feature:Unique Id Index]/[Scenario:Simple Scenario]"),
+                        selectUniqueId("[engine:picklejar-engine]/[Feature:Unique Id Index]/[Scenario:Other Scenario]"))
+                .execute();
+
+        results.testEvents().assertStatistics(stats -> stats.started(2).succeeded(2));
+        results.testEvents().succeeded().assertEventsMatchLoosely(
+                event(displayName("Simple Scenario")),
+                event(displayName("Other Scenario"))
+        );
+    }
+
     /**
      * Surefire starts test with ClassSelector but no configuration. This should just be skipped and not result in real
      * discovery because otherwise the tests of the test engine itself fail with SurefireBooterForkException
@@ -292,6 +369,7 @@ public class DiscoveryTests {
                 .isEqualTo(MethodForStepNotFoundException.class);
         assertThat(exception.getCause().getCause().getMessage())
                 .isEqualTo("Could not find match for step 'I cannot find method for step'");
+        assertThat(exception.getCause().getCause().getStackTrace()[0].getLineNumber()).isEqualTo(5);
     }
 
     @Test
@@ -357,6 +435,28 @@ public class DiscoveryTests {
         );
     }
 
+    @Test
+    public void multipleStepPackagesInReversedOrder() {
+        // The first configured package wins for duplicated regexes, even though all packages are searched concurrently
+        EngineExecutionResults results = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.discovery.multiplesteppackages.package2,com.wire.qa.picklejar.engine.testdata.discovery.multiplesteppackages.package1")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.multiplesteppackages")
+                .selectors(selectPackage(""))
+                .execute();
+
+        results.testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+        results.allEvents().reportingEntryPublished().assertEventsMatchExactly(
+                reportEntry("Multiple method step",
+                        "com.wire.qa.picklejar.engine.testdata.discovery.multiplesteppackages.package2.Package2Steps.step2",
+                        "started"),
+                reportEntry("Multiple method step",
+                        "com.wire.qa.picklejar.engine.testdata.discovery.multiplesteppackages.package2.Package2Steps.step2",
+                        "passed")
+        );
+    }
+
     @Test
     public void unparseableFeatureFile() {
         Exception exception = assertThrows(JUnitException.class, () -> EngineTestKit
@@ -423,6 +523,46 @@ public class DiscoveryTests {
         );
     }
 
+    @Test
+    public void castPlaceholdersWithStepAutomaton() {
+        EngineExecutionResults results = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.discovery.castplaceholders")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.castplaceholders")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.automaton.enabled", "true")
+                .selectors(selectPackage(""))
+                .execute();
+
+        results.testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+        results.testEvents().succeeded().assertEventsMatchExactly(
+                event(displayName("Cast placeholders"))
+        );
+    }
+
+    @Test
+    public void outlinePlaceholders() {
+        EngineExecutionResults results = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.discovery.outlineplaceholders")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.outlineplaceholders")
+                .selectors(selectPackage(""))
+                .execute();
+
+        results.testEvents().assertStatistics(stats -> stats.started(5).succeeded(5));
+        results.testEvents().reportingEntryPublished().assertEventsMatchLoosely(
+                // Values are inserted as they are, even if they contain a placeholder
+                reportEntry(step("Step with <second> and Value as outline text"), status("passed")),
+                // Column names are matched literally, not as regular expressions
+                reportEntry(step("Step with <abc> and Value as outline text"), status("passed")),
+                // The last of the duplicated columns is used
+                reportEntry(step("Step with Last as outline text"), status("passed")),
+                reportEntry(step("Step with 1 < 2 and Value and <name as outline text"), status("passed")),
+                reportEntry(step("Step with <unknown> and Value as outline text"), status("passed"))
+        );
+    }
+
     @Test
     public void castFails() {
         Exception exception = assertThrows(JUnitException.class, () -> EngineTestKit
@@ -444,6 +584,27 @@ public class DiscoveryTests {
                         clasz, clasz, value));
     }
 
+    @Test
+    public void customParameterConverter() throws IOException {
+        File cacheFile = new File(Files.createTempDirectory(null).toFile(), "cache.json");
+        EngineTestKit.Builder builder = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.discovery.parameterconverter")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.parameterconverter")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.converters", "com.wire.qa.picklejar.engine.testdata.discovery.parameterconverter.EmailConverter")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.cache.enabled", "true")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.cache.file", cacheFile.getAbsolutePath())
+                .selectors(selectPackage(""));
+
+        // The second run converts the parameters stored in the cache
+        for (int run = 0; run < 2; run++) {
+            EngineExecutionResults results = builder.execute();
+            results.testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+        }
+        assertThat(Files.readString(cacheFile.toPath())).contains("alice@wire.com");
+    }
+
     @Test
     public void featuresInSubdirectories() {
         EngineExecutionResults results = EngineTestKit
@@ -467,6 +628,233 @@ public class DiscoveryTests {
         );
     }
 
+    @Test
+    public void parallelDiscovery() {
+        EngineExecutionResults results = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.discovery.subdirectories")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.subdirectories")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.parallel.enabled", "true")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.parallelism", "2")
+                .selectors(selectPackage(""))
+                .execute();
+
+        results.testEvents().assertStatistics(stats -> stats.started(2).succeeded(2));
+        results.testEvents().succeeded().assertEventsMatchLoosely(
+                event(finishedSuccessfully(), displayName("Scenario in Subdirectory")),
+                event(finishedSuccessfully(), displayName("Scenario in Parent Directory"))
+        );
+    }
+
+    @Test
+    public void parallelDiscoveryReportsDiscoveryException() {
+        Exception exception = assertThrows(JUnitException.class, () -> EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.steps")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.cannotfindmethodfeature")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.parallel.enabled", "true")
+                .selectors(selectPackage(""))
+                .execute());
+
+        assertThat(exception.getCause().getClass()).isEqualTo(JUnitException.class);
+        assertThat(exception.getCause().getMessage()).isEqualTo("PackageSelector [packageName = ''] resolution failed");
+        assertThat(exception.getCause().getCause().getClass()).isEqualTo(MethodForStepNotFoundException.class);
+        assertThat(exception.getCause().getCause().getMessage())
+                .isEqualTo("Could not find match for step 'I cannot find method for step'");
+    }
+
+    @Test
+    public void discoveryCache() throws IOException {
+        File directory = Files.createTempDirectory(null).toFile();
+        File cacheFile = new File(directory, "cache.json");
+        File statisticsFile = new File(directory, "statistics.json");
+        EngineTestKit.Builder builder = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.scenario.outline")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.scenario.outline")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.cache.enabled", "true")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.cache.file", cacheFile.getAbsolutePath())
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.statistics.enabled", "true")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.statistics.file", statisticsFile.getAbsolutePath())
+                .selectors(selectPackage(""));
+
+        EngineExecutionResults uncachedResults = builder.execute();
+        assertThat(cacheFile).exists();
+        assertThat(Files.readString(cacheFile.toPath())).contains("Outline.feature");
+        JsonNode uncachedCounters = new ObjectMapper().readTree(statisticsFile).get("counters");
+        assertThat(uncachedCounters.get("cachedFeatures").asLong()).isEqualTo(0);
+        EngineExecutionResults cachedResults = builder.execute();
+
+        // The second discovery takes the feature from the cache instead of parsing and resolving it again
+        JsonNode cachedCounters = new ObjectMapper().readTree(statisticsFile).get("counters");
+        assertThat(cachedCounters.get("cachedFeatures").asLong()).isEqualTo(cachedCounters.get("features").asLong())
+                .isGreaterThan(0);
+        assertThat(cachedCounters.get("stepResolutions").asLong()).isEqualTo(0);
+        assertThat(cachedResults.testEvents().started().count())
+                .isEqualTo(uncachedResults.testEvents().started().count());
+        assertThat(cachedResults.allEvents().reportingEntryPublished().count())
+                .isEqualTo(uncachedResults.allEvents().reportingEntryPublished().count());
+        cachedResults.testEvents().assertStatistics(stats -> stats.failed(0));
+    }
+
+    @Test
+    public void discoveryCacheAfterReorderingStepsPackages() throws IOException {
+        File directory = Files.createTempDirectory(null).toFile();
+        File cacheFile = new File(directory, "cache.json");
+        File statisticsFile = new File(directory, "statistics.json");
+        for (String stepsPackages : Arrays.asList(
+                "com.wire.qa.picklejar.engine.testdata.scenario.outline,com.wire.qa.picklejar.engine.testdata.steps",
+                "com.wire.qa.picklejar.engine.testdata.steps,com.wire.qa.picklejar.engine.testdata.scenario.outline")) {
+            EngineTestKit
+                    .engine("picklejar-engine")
+                    .enableImplicitConfigurationParameters(false)
+                    .configurationParameter("com.wire.qa.picklejar.steps.packages", stepsPackages)
+                    .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.scenario.outline")
+                    .configurationParameter("com.wire.qa.picklejar.engine.discovery.cache.enabled", "true")
+                    .configurationParameter("com.wire.qa.picklejar.engine.discovery.cache.file", cacheFile.getAbsolutePath())
+                    .configurationParameter("com.wire.qa.picklejar.engine.discovery.statistics.enabled", "true")
+                    .configurationParameter("com.wire.qa.picklejar.engine.discovery.statistics.file", statisticsFile.getAbsolutePath())
+                    .selectors(selectPackage(""))
+                    .execute();
+
+            // The order of the packages decides which step method wins, so the cached features cannot be reused
+            JsonNode counters = new ObjectMapper().readTree(statisticsFile).get("counters");
+            assertThat(counters.get("cachedFeatures").asLong()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void discoveryStatistics() throws IOException {
+        File statisticsFile = new File(Files.createTempDirectory(null).toFile(), "statistics.json");
+        EngineExecutionResults results = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.scenario.outline")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.scenario.outline")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.statistics.enabled", "true")
+                .configurationParameter("com.wire.qa.picklejar.engine.discovery.statistics.file", statisticsFile.getAbsolutePath())
+                .selectors(selectPackage(""))
+                .execute();
+
+        JsonNode statistics = new ObjectMapper().readTree(statisticsFile);
+        JsonNode counters = statistics.get("counters");
+        assertThat(counters.get("scenarios").asLong()).isEqualTo(results.testEvents().started().count());
+        assertThat(counters.get("stepResolutions").asLong()).isBetween(1L, counters.get("steps").asLong());
+        assertThat(counters.get("regexEvaluations").asLong())
+                .isEqualTo(counters.get("matchHits").asLong() + counters.get("matchMisses").asLong());
+        assertThat(counters.get("matchHits").asLong()).isGreaterThanOrEqualTo(counters.get("stepResolutions").asLong());
+        assertThat(statistics.get("phaseMillis").has("stepMatching")).isTrue();
+        assertThat(statistics.get("slowestFeatures").get(0).get("file").asText()).endsWith(".feature");
+        assertThat(statistics.get("mostExpensivePatterns").size()).isGreaterThan(0);
+    }
+
+    @Test
+    public void stepRegistry() throws Exception {
+        Path directory = Files.createTempDirectory(null);
+        Path packageDirectory = Files.createDirectories(directory.resolve("com/wire/qa/picklejar/engine/testdata/discovery/stepregistry"));
+        Path baseDirectory = Files.createDirectories(directory.resolve("com/wire/qa/picklejar/engine/testdata/discovery/registrybase"));
+        // The superclass is outside of the steps package
+        Path baseSource = Files.writeString(baseDirectory.resolve("BaseDefinitions.java"), String.join("\n",
+                "package com.wire.qa.picklejar.engine.testdata.discovery.registrybase;",
+                "public class BaseDefinitions {",
+                "    @io.cucumber.java.en.When(\"Inherited step in registry\")",
+                "    public void inheritedStep() {}",
+                "}"));
+        Path source = Files.writeString(packageDirectory.resolve("RegistrySteps.java"), String.join("\n",
+                "package com.wire.qa.picklejar.engine.testdata.discovery.stepregistry;",
+                "public class RegistrySteps extends com.wire.qa.picklejar.engine.testdata.discovery.registrybase.BaseDefinitions {",
+                "    @io.cucumber.java.en.When(\"Step with (.*)\\t(\\\\d+) in \\\"registry\\\"\")",
+                "    public void step(String text, int number) {}",
+                "    @io.cucumber.java.en.When(\"Another step in registry\")",
+                "    public void anotherStep() {}",
+                "}"));
+        Files.writeString(packageDirectory.resolve("Registry.feature"), String.join("\n",
+                "Feature: Registry",
+                "  Scenario: Step from registry",
+                "    When Step with text\t1 in \"registry\"",
+                "    When Another step in registry",
+                "    When Inherited step in registry"));
+
+        // Compile the step classes with the annotation processor
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            String classPath = Paths.get(When.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                    Arrays.asList("-d", directory.toString(), "-classpath", classPath), null,
+                    fileManager.getJavaFileObjects(source.toFile(), baseSource.toFile()));
+            task.setProcessors(Collections.singletonList(new StepRegistryProcessor()));
+            assertTrue(task.call());
+        }
+        Path registry = directory.resolve(StepRegistry.REGISTRY_RESOURCE);
+        String stepEntry = "Step with (.*)\\t(\\\\d+) in \"registry\"\tcom.wire.qa.picklejar.engine.testdata.discovery.stepregistry.RegistrySteps\tstep\tjava.lang.String,int";
+        String anotherStepEntry = "Another step in registry\tcom.wire.qa.picklejar.engine.testdata.discovery.stepregistry.RegistrySteps\tanotherStep\t";
+        // Inherited methods are registered under the step class
+        String inheritedStepEntry = "Inherited step in registry\tcom.wire.qa.picklejar.engine.testdata.discovery.stepregistry.RegistrySteps\tinheritedStep\t";
+        assertThat(Files.readAllLines(registry)).contains(stepEntry, anotherStepEntry, inheritedStepEntry);
+        String header = Files.readAllLines(registry).get(0);
+
+        assertThat(runRegistryScenario(directory))
+                .anyMatch(message -> message.contains("Loaded 3 step definition(s) of package com.wire.qa.picklejar.engine.testdata.discovery.stepregistry from step registry"))
+                .noneMatch(message -> message.contains("Step registry is outdated"));
+
+        // A regex which does not match the annotation anymore is noticed and the package is scanned instead
+        Files.writeString(registry, String.join("\n", header,
+                "Step (.*) (\\\\d+) registry\tcom.wire.qa.picklejar.engine.testdata.discovery.stepregistry.RegistrySteps\tstep\tjava.lang.String,int",
+                anotherStepEntry, inheritedStepEntry));
+        assertThat(runRegistryScenario(directory))
+                .anyMatch(message -> message.contains("Step registry is outdated"))
+                .noneMatch(message -> message.contains("from step registry"));
+
+        // A step method which was added after the registry was written is noticed as well
+        Files.writeString(registry, String.join("\n", header, stepEntry, inheritedStepEntry));
+        assertThat(runRegistryScenario(directory))
+                .anyMatch(message -> message.contains("Step registry is outdated"))
+                .noneMatch(message -> message.contains("from step registry"));
+    }
+
+    // Runs the scenario of stepRegistry() successfully and returns the log messages of the discovery
+    private static List<String> runRegistryScenario(Path directory) throws IOException {
+        List<String> messages = new CopyOnWriteArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        // The handlers of the engine logger are replaced by every discovery, so the handler is added below it
+        Logger discoveryLogger = Logger.getLogger("com.wire.qa.picklejar.engine.discovery");
+        discoveryLogger.addHandler(handler);
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, originalClassLoader)) {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            EngineExecutionResults results = EngineTestKit
+                    .engine("picklejar-engine")
+                    .enableImplicitConfigurationParameters(false)
+                    .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.discovery.stepregistry")
+                    .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.stepregistry")
+                    .configurationParameter("com.wire.qa.picklejar.engine.discovery.registry.enabled", "true")
+                    .selectors(selectPackage(""))
+                    .execute();
+
+            results.testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+            discoveryLogger.removeHandler(handler);
+        }
+        return messages;
+    }
+
     @Test
     public void duplicateScenarioNameInOneFeatureFile() {
         Exception exception = assertThrows(JUnitException.class, () -> EngineTestKit
@@ -486,6 +874,8 @@ public class DiscoveryTests {
         assertThat(exception.getCause().getCause().getMessage()).contains(
                 String.format("Duplicate scenario name(s) in feature '%s': %s",
                         feature, scenarioName));
+        // Line of the second scenario with the same name
+        assertThat(exception.getCause().getCause().getStackTrace()[0].getLineNumber()).isEqualTo(6);
     }
 
     @Test
@@ -514,37 +904,33 @@ public class DiscoveryTests {
 
     @Test
     public void generateRelativeFeatureFolder() throws IOException, URISyntaxException {
-        Set<File> featuresPackageFolders = new HashSet<>();
-        featuresPackageFolders.add(Files.createTempDirectory(null).toFile());
-        File featureFileInRoot = Files.createTempFile(featuresPackageFolders.stream().findFirst().get().toPath(), "Account", ".feature")
-                .toFile();
-        File subdirectory = Files.createTempDirectory(featuresPackageFolders.stream().findFirst().get().toPath(), null).toFile();
-        File featureFileInSubdirectory = Files.createTempFile(subdirectory.toPath(), "Account", ".feature")
-                .toFile();
+        Set<Path> featuresPackageFolders = new HashSet<>();
+        featuresPackageFolders.add(Files.createTempDirectory(null));
+        Path featureFileInRoot = Files.createTempFile(featuresPackageFolders.stream().findFirst().get(), "Account", ".feature");
+        Path subdirectory = Files.createTempDirectory(featuresPackageFolders.stream().findFirst().get(), null);
+        Path featureFileInSubdirectory = Files.createTempFile(subdirectory, "Account", ".feature");
 
         assertThat(FeatureSelectorResolver.getRelativeFeatureFolder(
-                new File(new URI("file:/C:/Users/jenkins/Documents/jenkins/workspace/Wrapper_Windows_Experimental_Tests/tests/desktop/target/test-classes/com/wearezeta/auto/desktop/Application.feature")),
-                new HashSet<>(Arrays.asList(new File(new URI("file:/C:/Users/jenkins/Documents/jenkins/workspace/Wrapper_Windows_Experimental_Tests/tests/desktop/target/classes/com/wearezeta/auto/desktop/")),
-                        new File(new URI("file:/C:/Users/jenkins/Documents/jenkins/workspace/Wrapper_Windows_Experimental_Tests/tests/desktop/target/test-classes/com/wearezeta/auto/desktop/"))
+                Paths.get(new URI("file:/C:/Users/jenkins/Documents/jenkins/workspace/Wrapper_Windows_Experimental_Tests/tests/desktop/target/test-classes/com/wearezeta/auto/desktop/Application.feature")),
+                new HashSet<>(Arrays.asList(Paths.get(new URI("file:/C:/Users/jenkins/Documents/jenkins/workspace/Wrapper_Windows_Experimental_Tests/tests/desktop/target/classes/com/wearezeta/auto/desktop/")),
+                        Paths.get(new URI("file:/C:/Users/jenkins/Documents/jenkins/workspace/Wrapper_Windows_Experimental_Tests/tests/desktop/target/test-classes/com/wearezeta/auto/desktop/"))
                 )))).isEqualTo("");
         assertThat(FeatureSelectorResolver.getRelativeFeatureFolder(
                 featureFileInRoot,
                 featuresPackageFolders)).isEqualTo("");
         assertThat(FeatureSelectorResolver.getRelativeFeatureFolder(
                 featureFileInSubdirectory,
-                featuresPackageFolders)).isEqualTo(subdirectory.getName() + "/");
+                featuresPackageFolders)).isEqualTo(subdirectory.getFileName() + "/");
     }
 
     @Test
     public void errorOnGenerateRelativeFeatureFolderWithUnrelatedFolder() throws IOException {
-        File featuresPackageFolder = Files.createTempDirectory(null).toFile();
-        File featureFileInRoot = Files.createTempFile(featuresPackageFolder.toPath(), "Account", ".feature")
-                .toFile();
-        File subdirectory = Files.createTempDirectory(featuresPackageFolder.toPath(), null).toFile();
-        File featureFileInSubdirectory = Files.createTempFile(subdirectory.toPath(), "Account", ".feature")
-                .toFile();
-        Set<File> onlyUnrelatedPackageFolders = new HashSet<>();
-        onlyUnrelatedPackageFolders.add(Files.createTempDirectory(null).toFile());
+        Path featuresPackageFolder = Files.createTempDirectory(null);
+        Path featureFileInRoot = Files.createTempFile(featuresPackageFolder, "Account", ".feature");
+        Path subdirectory = Files.createTempDirectory(featuresPackageFolder, null);
+        Path featureFileInSubdirectory = Files.createTempFile(subdirectory, "Account", ".feature");
+        Set<Path> onlyUnrelatedPackageFolders = new HashSet<>();
+        onlyUnrelatedPackageFolders.add(Files.createTempDirectory(null));
 
         Exception exception = assertThrows(RuntimeException.class, () -> FeatureSelectorResolver.getRelativeFeatureFolder(
                 featureFileInRoot,
@@ -552,13 +938,61 @@ public class DiscoveryTests {
         assertThat(exception.getClass()).isEqualTo(RuntimeException.class);
         assertThat(exception.getMessage()).contains(
                 String.format("[Discovery] Could not relate any feature package folders to file ",
-                        featureFileInRoot.getAbsolutePath()));
+                        featureFileInRoot.toAbsolutePath()));
         Exception exception2 = assertThrows(RuntimeException.class, () -> FeatureSelectorResolver.getRelativeFeatureFolder(
                 featureFileInSubdirectory,
                 onlyUnrelatedPackageFolders));
         assertThat(exception2.getClass()).isEqualTo(RuntimeException.class);
         assertThat(exception2.getMessage()).contains(
                 String.format("[Discovery] Could not relate any feature package folders to file ",
-                        featureFileInRoot.getAbsolutePath()));
+                        featureFileInRoot.toAbsolutePath()));
+    }
+
+    @Test
+    public void featuresInJar() throws Exception {
+        String packageFolder = "com/wire/qa/picklejar/engine/testdata/discovery/featuresinjar/";
+        Path jar = Files.createTempFile("features", ".jar");
+        try (JarOutputStream jarOutputStream = new JarOutputStream(Files.newOutputStream(jar))) {
+            jarOutputStream.putNextEntry(new JarEntry(packageFolder));
+            jarOutputStream.putNextEntry(new JarEntry(packageFolder + "Jar.feature"));
+            jarOutputStream.write(String.join("\n",
+                    "Feature: Jar",
+                    "  Scenario: Scenario in jar",
+                    "    When Step without parameters").getBytes(StandardCharsets.UTF_8));
+            jarOutputStream.putNextEntry(new JarEntry(packageFolder + "subfolder/"));
+            jarOutputStream.putNextEntry(new JarEntry(packageFolder + "subfolder/Jar.feature"));
+            jarOutputStream.write(String.join("\n",
+                    "Feature: Jar",
+                    "  Scenario: Scenario in subfolder",
+                    "    When Step without parameters").getBytes(StandardCharsets.UTF_8));
+        }
+
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, originalClassLoader)) {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            EngineExecutionResults results = EngineTestKit
+                    .engine("picklejar-engine")
+                    .enableImplicitConfigurationParameters(false)
+                    .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.steps")
+                    .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.featuresinjar")
+                    .selectors(selectPackage(""))
+                    .execute();
+
+            results.testEvents().assertStatistics(stats -> stats.started(2).succeeded(2));
+
+            EngineExecutionResults uniqueIdResults = EngineTestKit
+                    .engine("picklejar-engine")
+                    .enableImplicitConfigurationParameters(false)
+                    .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.steps")
+                    .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.featuresinjar")
+                    .selectors(selectUniqueId(UniqueId.forEngine("picklejar-engine")
+                            .append("Feature", "subfolder/Jar")
+                            .append("Scenario", "Scenario in subfolder")))
+                    .execute();
+
+            uniqueIdResults.testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.wire.qa.picklejar.engine.tests;
+
+import com.wire.qa.picklejar.engine.PicklejarEngine;
+import com.wire.qa.picklejar.engine.exception.MisconfigurationException;
+import com.wire.qa.picklejar.engine.testdata.injection.scopes.FeatureHelper;
+import com.wire.qa.picklejar.engine.testdata.injection.scopes.RunHelper;
+import com.wire.qa.picklejar.engine.testdata.injection.scopes.ScenarioHelper;
+import com.wire.qa.picklejar.engine.testdata.injection.scopes.StepHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.commons.JUnitException;
+import org.junit.platform.testkit.engine.EngineExecutionResults;
+import org.junit.platform.testkit.engine.EngineTestKit;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectPackage;
+
+public class InjectionTests {
+
+    @BeforeEach
+    public void resetHelpers() {
+        for (AtomicInteger counter : Arrays.asList(RunHelper.created, RunHelper.closed, FeatureHelper.created,
+                FeatureHelper.closed, ScenarioHelper.created, ScenarioHelper.closed, StepHelper.created,
+                StepHelper.closed)) {
+            counter.set(0);
+        }
+    }
+
+    @Test
+    public void instancesPerScope() {
+        EngineExecutionResults results = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.injection.scopes")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.injection.scopes")
+                .selectors(selectPackage(""))
+                .execute();
+
+        results.testEvents().assertStatistics(stats -> stats.started(4).succeeded(4));
+        assertThat(RunHelper.created.get()).isEqualTo(1);
+        assertThat(RunHelper.closed.get()).isEqualTo(1);
+        assertThat(FeatureHelper.created.get()).isEqualTo(2);
+        assertThat(FeatureHelper.closed.get()).isEqualTo(2);
+        assertThat(ScenarioHelper.created.get()).isEqualTo(4);
+        assertThat(ScenarioHelper.closed.get()).isEqualTo(4);
+        assertThat(StepHelper.created.get()).isEqualTo(4);
+        assertThat(StepHelper.closed.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void runScopePerExecution() {
+        // Reruns and watch mode execute again on the same engine instance
+        PicklejarEngine engine = new PicklejarEngine();
+        for (int run = 1; run <= 2; run++) {
+            EngineExecutionResults results = EngineTestKit
+                    .engine(engine)
+                    .enableImplicitConfigurationParameters(false)
+                    .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.injection.scopes")
+                    .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.injection.scopes")
+                    .selectors(selectPackage(""))
+                    .execute();
+
+            results.testEvents().assertStatistics(stats -> stats.started(4).succeeded(4));
+            assertThat(RunHelper.created.get()).isEqualTo(run);
+            assertThat(RunHelper.closed.get()).isEqualTo(run);
+        }
+    }
+
+    @Test
+    public void dependencyOfNarrowerScope() {
+        Exception exception = assertThrows(JUnitException.class, () -> EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.injection.wrongscope")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.injection.wrongscope")
+                .selectors(selectPackage(""))
+                .execute());
+
+        assertThat(exception.getCause()).isInstanceOf(MisconfigurationException.class)
+                .hasMessage("RUN scoped com.wire.qa.picklejar.engine.testdata.injection.wrongscope.RunHelper cannot depend on SCENARIO scoped com.wire.qa.picklejar.engine.testdata.injection.wrongscope.ScenarioHelper");
+    }
+
+}
@@ -1,15 +1,40 @@
 package com.wire.qa.picklejar.engine.tests;
 
+import com.wire.qa.picklejar.engine.PicklejarConfiguration;
+import com.wire.qa.picklejar.engine.PicklejarEngine;
+import com.wire.qa.picklejar.launcher.ChangedScenarioFilter;
+import com.wire.qa.picklejar.launcher.StepClassLoader;
 import com.wire.qa.picklejar.launcher.TestPropertyParser;
 import com.wire.qa.picklejar.launcher.UniqueIdFilter;
+import com.wire.qa.picklejar.launcher.WatchMode;
+import io.cucumber.java.en.Given;
 import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.core.LauncherConfig;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
 import org.junit.platform.testkit.engine.EngineExecutionResults;
 import org.junit.platform.testkit.engine.EngineTestKit;
 
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.platform.engine.discovery.DiscoverySelectors.selectPackage;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectUniqueId;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
 
 public class LauncherTests {
 
@@ -53,6 +78,22 @@ public class LauncherTests {
         results.testEvents().assertStatistics(stats -> stats.started(4).succeeded(4));
     }
 
+    @Test
+    public void parseTestParameterOnlyDiscoversSelectedFeatures() {
+        // The package contains another feature with a step that cannot be found, it must not be discovered
+        List<String> uniqueIds = TestPropertyParser.parse("Unique Id Index#Simple Scenario");
+        EngineExecutionResults results = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.steps")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.discovery.uniqueidindex")
+                .selectors(uniqueIds.stream().map(id -> selectUniqueId(id)).toArray(DiscoverySelector[]::new))
+                .filters(UniqueIdFilter.includeIds(uniqueIds))
+                .execute();
+
+        results.testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+    }
+
     @Test
     public void parseTestParameterWithSubdirectories() {
         List<String> result = TestPropertyParser.parse("Subdirectory1/Feature1#Scenario1+Scenario2,Feature2#Scenario1,Subdirectory3/Feature3#Scenario1 1");
@@ -68,4 +109,140 @@ public class LauncherTests {
         assertThat(result).containsExactly("[engine:picklejar-engine]/[Feature:Subdirectory-with-dash%2FFeature]/[Scenario:Scenario]");
     }
 
+    @Test
+    public void includeChangedScenarios() throws Exception {
+        Path feature2 = Paths.get(getClass().getResource("/com/wire/qa/picklejar/engine/testdata/launcher/Feature2.feature").toURI());
+        EngineExecutionResults changedFeatureResults = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.launcher")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.launcher")
+                .selectors(selectPackage(""))
+                .filters(ChangedScenarioFilter.includeChanged(Collections.singleton(feature2), Collections.emptySet()))
+                .execute();
+
+        changedFeatureResults.testEvents().assertStatistics(stats -> stats.started(2).succeeded(2));
+
+        EngineExecutionResults changedClassResults = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.launcher")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.launcher")
+                .selectors(selectPackage(""))
+                .filters(ChangedScenarioFilter.includeChanged(Collections.emptySet(),
+                        Collections.singleton("com.wire.qa.picklejar.engine.testdata.launcher.ExampleSteps")))
+                .execute();
+
+        changedClassResults.testEvents().assertStatistics(stats -> stats.started(4).succeeded(4));
+    }
+
+    @Test
+    public void stepClassLoaderLoadsRecompiledStepClasses() throws Exception {
+        String stepsPackage = "com.wire.qa.picklejar.engine.testdata.watch.loader";
+        Path directory = Files.createTempDirectory(null);
+        compile(directory, stepsPackage + ".LoaderSteps", "public static int version() { return 1; }");
+        compile(directory, "com.wire.qa.picklejar.engine.testdata.watch.other.Other", "");
+
+        // The parent stands for the classpath the JVM was started with
+        try (URLClassLoader parent = new URLClassLoader(new URL[]{directory.toUri().toURL()}, getClass().getClassLoader())) {
+            assertThat(parent.loadClass(stepsPackage + ".LoaderSteps").getMethod("version").invoke(null)).isEqualTo(1);
+
+            compile(directory, stepsPackage + ".LoaderSteps", "public static int version() { return 2; }");
+            try (StepClassLoader stepClassLoader = new StepClassLoader(new URL[]{directory.toUri().toURL()}, parent,
+                    List.of(stepsPackage))) {
+                Class<?> stepClass = stepClassLoader.loadClass(stepsPackage + ".LoaderSteps");
+                assertThat(stepClass.getClassLoader()).isSameAs(stepClassLoader);
+                assertThat(stepClass.getMethod("version").invoke(null)).isEqualTo(2);
+                assertThat(stepClassLoader.loadClass("com.wire.qa.picklejar.engine.testdata.watch.other.Other").getClassLoader())
+                        .isSameAs(parent);
+                // Otherwise the steps package would be found twice when scanning
+                assertThat(Collections.list(stepClassLoader.getResources(stepsPackage.replace(".", "/")))).hasSize(1);
+            }
+        }
+    }
+
+    @Test
+    public void watchModeRerunsAffectedScenarios() throws Exception {
+        String watchPackage = "com.wire.qa.picklejar.engine.testdata.watch.rerun";
+        Path directory = Files.createTempDirectory(null);
+        Path packageDirectory = Files.createDirectories(directory.resolve(watchPackage.replace(".", "/")));
+        compile(directory, watchPackage + ".ReloadedSteps",
+                "@io.cucumber.java.en.Given(\"Reloaded step\")",
+                "public void step() { throw new IllegalStateException(\"Not compiled again\"); }");
+        compile(directory, watchPackage + ".OtherSteps",
+                "@io.cucumber.java.en.Given(\"Other step\")",
+                "public void step() {}");
+        compile(directory, watchPackage + ".Helper", "");
+        Path feature1 = Files.writeString(packageDirectory.resolve("Watch1.feature"), String.join("\n",
+                "Feature: Watch 1",
+                "  Scenario: Other",
+                "    Given Other step",
+                "",
+                "  @excluded",
+                "  Scenario: Excluded",
+                "    Given Other step"));
+        Files.writeString(packageDirectory.resolve("Watch2.feature"), String.join("\n",
+                "Feature: Watch 2",
+                "  Scenario: Reloaded",
+                "    Given Reloaded step"));
+
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        System.setProperty("com.wire.qa.picklejar.steps.packages", watchPackage);
+        System.setProperty("com.wire.qa.picklejar.features.package", watchPackage);
+        System.setProperty("picklejar.exclude.tags", "@excluded");
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, originalClassLoader)) {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            Launcher launcher = LauncherFactory.create(LauncherConfig.builder()
+                    .enableTestEngineAutoRegistration(false)
+                    .enableTestExecutionListenerAutoRegistration(false)
+                    .addTestEngines(new PicklejarEngine())
+                    .build());
+            SummaryGeneratingListener summary = new SummaryGeneratingListener();
+            WatchMode watchMode = new WatchMode(launcher,
+                    new PicklejarConfiguration(request().build().getConfigurationParameters()), summary);
+
+            // Only the changed feature is rerun, without the scenario excluded by tag
+            watchMode.rerun(Set.of(feature1));
+            assertThat(summary.getSummary().getTestsFoundCount()).isEqualTo(1);
+            assertThat(summary.getSummary().getTestsSucceededCount()).isEqualTo(1);
+
+            // Only the scenario using the changed step class is rerun, with the recompiled class
+            compile(directory, watchPackage + ".ReloadedSteps",
+                    "@io.cucumber.java.en.Given(\"Reloaded step\")",
+                    "public void step() {}");
+            watchMode.rerun(Set.of(packageDirectory.resolve("ReloadedSteps.class")));
+            assertThat(summary.getSummary().getTestsFoundCount()).isEqualTo(1);
+            assertThat(summary.getSummary().getTestsSucceededCount()).isEqualTo(1);
+
+            // A changed class without step methods can affect every scenario
+            watchMode.rerun(Set.of(packageDirectory.resolve("Helper.class")));
+            assertThat(summary.getSummary().getTestsFoundCount()).isEqualTo(2);
+            assertThat(summary.getSummary().getTestsSucceededCount()).isEqualTo(2);
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+            System.clearProperty("com.wire.qa.picklejar.steps.packages");
+            System.clearProperty("com.wire.qa.picklejar.features.package");
+            System.clearProperty("picklejar.exclude.tags");
+        }
+    }
+
+    // Compiles a class with the given body into the directory, like the IDE or the build tool would do
+    private static void compile(Path directory, String className, String... body) throws Exception {
+        int lastDot = className.lastIndexOf('.');
+        Path source = Files.createTempDirectory(null).resolve(className.substring(lastDot + 1) + ".java");
+        Files.writeString(source, String.join("\n",
+                "package " + className.substring(0, lastDot) + ";",
+                "public class " + className.substring(lastDot + 1) + " {",
+                String.join("\n", body),
+                "}"));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            String classPath = Paths.get(Given.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null,
+                    Arrays.asList("-d", directory.toString(), "-classpath", classPath, "-proc:none"), null,
+                    fileManager.getJavaFileObjects(source.toFile()));
+            assertTrue(task.call());
+        }
+    }
+
 }
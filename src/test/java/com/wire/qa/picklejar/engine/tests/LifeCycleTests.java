@@ -1,12 +1,15 @@
 package com.wire.qa.picklejar.engine.tests;
 
+import com.wire.qa.picklejar.engine.exception.MisconfigurationException;
 import com.wire.qa.picklejar.engine.testdata.lifecycle.beforeeachscenario.LifeCycle;
 import org.junit.jupiter.api.Test;
+import org.junit.platform.commons.JUnitException;
 import org.junit.platform.testkit.engine.EngineExecutionResults;
 import org.junit.platform.testkit.engine.EngineTestKit;
 
 import static com.wire.qa.picklejar.engine.tests.ReportEntryConditions.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.platform.engine.discovery.DiscoverySelectors.selectPackage;
 import static org.junit.platform.testkit.engine.EventConditions.*;
 import static org.junit.platform.testkit.engine.TestExecutionResultConditions.instanceOf;
@@ -27,6 +30,21 @@ public class LifeCycleTests {
         results.testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
     }
 
+    @Test
+    public void stepClassInstancePerScenario() {
+        EngineExecutionResults results = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.lifecycle.stepinstances")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.lifecycle.stepinstances")
+                .selectors(selectPackage(""))
+                .execute();
+
+        results.testEvents().assertStatistics(stats -> stats.started(2).succeeded(2));
+        assertThat(com.wire.qa.picklejar.engine.testdata.lifecycle.stepinstances.SharedSteps.instances).isEqualTo(2);
+        assertThat(com.wire.qa.picklejar.engine.testdata.lifecycle.stepinstances.FreshSteps.instances).isEqualTo(4);
+    }
+
     @Test
     public void beforeEachScenario() {
         EngineExecutionResults results = EngineTestKit
@@ -161,4 +179,33 @@ public class LifeCycleTests {
         assertThat(com.wire.qa.picklejar.engine.testdata.lifecycle.aftereachstep.LifeCycle.counter).isEqualTo(4);
     }
 
+    @Test
+    public void hooksOfAllStepsPackages() {
+        EngineExecutionResults results = EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.lifecycle.multiplesteppackages.package1,com.wire.qa.picklejar.engine.testdata.lifecycle.multiplesteppackages.package2")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.lifecycle.multiplesteppackages")
+                .selectors(selectPackage(""))
+                .execute();
+
+        results.testEvents().assertStatistics(stats -> stats.started(1).succeeded(1));
+        assertThat(com.wire.qa.picklejar.engine.testdata.lifecycle.multiplesteppackages.package2.LifeCycle.beforeCounter).isEqualTo(2);
+        assertThat(com.wire.qa.picklejar.engine.testdata.lifecycle.multiplesteppackages.package2.LifeCycle.afterCounter).isEqualTo(2);
+    }
+
+    @Test
+    public void hookWithWrongNumberOfParameters() {
+        Exception exception = assertThrows(JUnitException.class, () -> EngineTestKit
+                .engine("picklejar-engine")
+                .enableImplicitConfigurationParameters(false)
+                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.lifecycle.wrongparameters")
+                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.lifecycle.wrongparameters")
+                .selectors(selectPackage(""))
+                .execute());
+
+        assertThat(exception.getCause()).isInstanceOf(MisconfigurationException.class)
+                .hasMessage("@AfterEachScenario method com.wire.qa.picklejar.engine.testdata.lifecycle.wrongparameters.LifeCycle.afterScenario has wrong number of parameters");
+    }
+
 }
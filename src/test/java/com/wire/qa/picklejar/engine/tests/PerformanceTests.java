@@ -1,32 +1,168 @@
 package com.wire.qa.picklejar.engine.tests;
 
-import org.junit.jupiter.api.Disabled;
+import com.wire.qa.picklejar.engine.PicklejarEngine;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
-import org.junit.platform.testkit.engine.EngineTestKit;
+import org.junit.platform.engine.EngineExecutionListener;
+import org.junit.platform.engine.ExecutionRequest;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.UniqueId;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
 
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.platform.engine.discovery.DiscoverySelectors.selectPackage;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
 
 public class PerformanceTests {
 
+    // Budgets of the engine, can be overridden with system properties
+    // Retained heap of the test plan per scenario of the synthetic suite in heapFootprintPerScenario()
+    private static final long HEAP_FOOTPRINT_LIMIT = Long.getLong("picklejar.performance.heapBytesLimit", 1_024);
+    // Time and allocations per executed no-op step in stepOverhead()
+    private static final long STEP_NANOS_LIMIT = Long.getLong("picklejar.performance.stepNanosLimit", 100_000);
+    private static final long STEP_BYTES_LIMIT = Long.getLong("picklejar.performance.stepBytesLimit", 8_192);
+
+    /*
+     * Measures the heap which is retained by the discovered test plan of a synthetic suite (outlines with tags and
+     * repeated steps, like most of our real suites)
+     */
+    @Test
+    @Tag("performance")
+    public void heapFootprintPerScenario() throws Exception {
+        int featureCount = 20;
+        int rowCount = 250;
+        Path directory = Files.createTempDirectory(null);
+        Path packageDirectory = Files.createDirectories(directory.resolve("com/wire/qa/picklejar/engine/testdata/performance/footprint"));
+        for (int i = 0; i < featureCount; i++) {
+            List<String> lines = new ArrayList<>(List.of(
+                    "@regression @feature" + i,
+                    "Feature: Footprint " + i,
+                    "  @smoke @outline",
+                    "  Scenario Outline: Outline " + i + " with <Parameter>",
+                    "    Given Step without parameters",
+                    "    Given Step with <Parameter> as string parameter",
+                    "    Given Step with constant as string parameter",
+                    "    Given Step without parameters",
+                    "    Examples:",
+                    "      | Parameter |"));
+            for (int row = 0; row < rowCount; row++) {
+                lines.add("      | value" + row + " |");
+            }
+            Files.write(packageDirectory.resolve("Footprint" + i + ".feature"), lines);
+        }
+
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, originalClassLoader)) {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            LauncherDiscoveryRequest discoveryRequest = request()
+                    .enableImplicitConfigurationParameters(false)
+                    .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.steps")
+                    .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.performance.footprint")
+                    .selectors(selectPackage(""))
+                    .build();
+            PicklejarEngine engine = new PicklejarEngine();
+            // Warm up so that loaded classes and caches of the first discovery are not measured
+            engine.discover(discoveryRequest, UniqueId.forEngine(engine.getId()));
+
+            long usedBefore = usedHeap();
+            TestDescriptor testPlan = engine.discover(discoveryRequest, UniqueId.forEngine(engine.getId()));
+            long usedAfter = usedHeap();
+            long scenarioCount = testPlan.getDescendants().stream().filter(TestDescriptor::isTest).count();
+            Reference.reachabilityFence(testPlan);
+
+            long bytesPerScenario = (usedAfter - usedBefore) / scenarioCount;
+            System.out.printf("Heap footprint: %d bytes per scenario (%d scenarios)%n", bytesPerScenario, scenarioCount);
+            assertThat(scenarioCount).isEqualTo(featureCount * rowCount);
+            assertThat(bytesPerScenario).isLessThan(HEAP_FOOTPRINT_LIMIT);
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+        }
+    }
+
     /*
-     * Enable following test to test performance of discovery
+     * Measures the time and the allocated bytes the engine needs for every executed step of scenarios with thousands
+     * of no-op steps. The execution runs on the calling thread without parallelism, so the allocation counter of
+     * this thread covers everything the engine allocates. The time depends on the machine, so it is only checked by
+     * ./gradlew performanceTest.
      */
-    @Test @Disabled
-    public void discoveryPerformance() {
-        EngineTestKit.Builder builer = EngineTestKit
-                .engine("picklejar-engine")
-                .enableImplicitConfigurationParameters(false)
-                .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.performance")
-                .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.performance.discovery")
-                .selectors(selectPackage(""));
-
-        int amount = 100;
-        long start = System.currentTimeMillis();
-        for (int ii = 0 ; ii < amount ; ii++) {
-            builer.execute();
+    @Test
+    @Tag("performance")
+    public void stepOverhead() throws Exception {
+        int scenarioCount = 5;
+        int stepCount = 2_000;
+        Path directory = Files.createTempDirectory(null);
+        Path packageDirectory = Files.createDirectories(directory.resolve("com/wire/qa/picklejar/engine/testdata/performance/overhead"));
+        List<String> lines = new ArrayList<>(List.of("Feature: Step overhead"));
+        for (int i = 0; i < scenarioCount; i++) {
+            lines.add("  Scenario: Scenario " + i);
+            lines.addAll(Collections.nCopies(stepCount, "    Given Step without parameters"));
+        }
+        Files.write(packageDirectory.resolve("Overhead.feature"), lines);
+
+        Logger engineLogger = Logger.getLogger("com.wire.qa.picklejar.engine");
+        Level originalLevel = engineLogger.getLevel();
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, originalClassLoader)) {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            LauncherDiscoveryRequest discoveryRequest = request()
+                    .enableImplicitConfigurationParameters(false)
+                    .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.steps")
+                    .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.performance.overhead")
+                    .selectors(selectPackage(""))
+                    .build();
+            PicklejarEngine engine = new PicklejarEngine();
+            // The console would be measured instead of the engine
+            engineLogger.setLevel(Level.WARNING);
+            // Warm up so that class loading and the JIT compiler are not measured
+            for (int i = 0; i < 3; i++) {
+                execute(engine, discoveryRequest);
+            }
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+            TestDescriptor testPlan = engine.discover(discoveryRequest, UniqueId.forEngine(engine.getId()));
+            long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            engine.execute(new ExecutionRequest(testPlan, EngineExecutionListener.NOOP, discoveryRequest.getConfigurationParameters()));
+            long nanosPerStep = (System.nanoTime() - start) / (scenarioCount * stepCount);
+            long bytesPerStep = (threads.getThreadAllocatedBytes(threadId) - bytesBefore) / (scenarioCount * stepCount);
+
+            System.out.printf("Step overhead: %d ns and %d bytes per step (%d steps)%n", nanosPerStep, bytesPerStep,
+                    scenarioCount * stepCount);
+            assertThat(nanosPerStep).isLessThan(STEP_NANOS_LIMIT);
+            assertThat(bytesPerStep).isLessThan(STEP_BYTES_LIMIT);
+        } finally {
+            engineLogger.setLevel(originalLevel);
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+        }
+    }
+
+    private static void execute(PicklejarEngine engine, LauncherDiscoveryRequest discoveryRequest) {
+        TestDescriptor testPlan = engine.discover(discoveryRequest, UniqueId.forEngine(engine.getId()));
+        engine.execute(new ExecutionRequest(testPlan, EngineExecutionListener.NOOP, discoveryRequest.getConfigurationParameters()));
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // A single System.gc() does not reliably collect everything
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(20);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
         }
-        long elapsed = System.currentTimeMillis() - start;
-        System.out.printf("elapsed time = %s ms (%s s)%n", elapsed, elapsed / 1000);
-        System.out.printf("%s ms per execution%n", elapsed / amount);
+        return used;
     }
 }
@@ -6,8 +6,13 @@ import org.junit.platform.testkit.engine.EngineExecutionResults;
 import org.junit.platform.testkit.engine.EngineTestKit;
 import org.junit.platform.testkit.engine.Execution;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static com.wire.qa.picklejar.engine.tests.ReportEntryConditions.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -187,4 +192,43 @@ public class ScenarioTests {
         assertThat(Math.abs(difference)).isLessThanOrEqualTo(100);
     }
 
+    @Test
+    public void bufferedLoggingKeepsScenariosTogether() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream systemErr = System.err;
+        // The console handler is created during discovery and writes to the System.err of that time
+        System.setErr(new PrintStream(output, true));
+        EngineExecutionResults results;
+        try {
+            results = EngineTestKit
+                    .engine("picklejar-engine")
+                    .enableImplicitConfigurationParameters(false)
+                    .configurationParameter("com.wire.qa.picklejar.steps.packages", "com.wire.qa.picklejar.engine.testdata.scenario.bufferedlogging")
+                    .configurationParameter("com.wire.qa.picklejar.features.package", "com.wire.qa.picklejar.engine.testdata.scenario.bufferedlogging")
+                    .configurationParameter("com.wire.qa.picklejar.engine.logging.buffered", "true")
+                    .configurationParameter("junit.jupiter.execution.parallel.enabled", "true")
+                    .configurationParameter("junit.jupiter.execution.parallel.config.strategy", "fixed")
+                    .configurationParameter("junit.jupiter.execution.parallel.config.fixed.parallelism", "4")
+                    .selectors(selectPackage(""))
+                    .execute();
+        } finally {
+            System.setErr(systemErr);
+        }
+
+        results.testEvents().assertStatistics(stats -> stats.started(4).succeeded(4));
+        // The lines of a scenario start with the id of its thread and must not be interrupted by other scenarios
+        List<String> threadIds = new ArrayList<>();
+        Matcher matcher = Pattern.compile("\\[(\\d+)] (TAGS|SCENARIO|STEP|PASSED|AFTER)").matcher(output.toString());
+        while (matcher.find()) {
+            threadIds.add(matcher.group(1));
+        }
+        assertThat(threadIds).hasSize(4 * (2 + 3 * 2 + 1));
+        int threadChanges = 0;
+        for (int i = 1; i < threadIds.size(); i++) {
+            if (!threadIds.get(i).equals(threadIds.get(i - 1))) {
+                threadChanges++;
+            }
+        }
+        assertThat(threadChanges).isLessThan(4);
+    }
 }
@@ -8,4 +8,10 @@ Feature: Cast placeholders
     And Step with 1.123 as float parameter
     And Step with 18.12330001 as double parameter
     And Step with true as boolean parameter
-    And Step with False as boolean parameter
\ No newline at end of file
+    And Step with False as boolean parameter
+    And Step with 12 as short parameter
+    And Step with 7 as byte parameter
+    And Step with x as char parameter
+    And Step with GREEN as enum parameter
+    And Step with 123e4567-e89b-12d3-a456-426614174000 as uuid parameter
+    And Step with PT5S as duration parameter
@@ -0,0 +1,36 @@
+Feature: Outline placeholders
+
+  Scenario Outline: Value with placeholder
+    When Step with <first> and <second> as outline text
+
+  Examples:
+    | first    | second |
+    | <second> | Value  |
+
+  Scenario Outline: Column name with regex characters
+    When Step with <abc> and <a.c> as outline text
+
+  Examples:
+    | a.c   |
+    | Value |
+
+  Scenario Outline: Duplicated column
+    When Step with <name> as outline text
+
+  Examples:
+    | name  | name |
+    | First | Last |
+
+  Scenario Outline: Unmatched bracket
+    When Step with 1 < 2 and <name> and <name as outline text
+
+  Examples:
+    | name  |
+    | Value |
+
+  Scenario Outline: Placeholder which is not a column
+    When Step with <unknown> and <name> as outline text
+
+  Examples:
+    | name  |
+    | Value |
@@ -0,0 +1,4 @@
+Feature: Parameter converter
+
+  Scenario: Custom parameter type
+    Given User alice@wire.com is logged in
@@ -0,0 +1,8 @@
+Feature: Tags during discovery
+
+  @smoke
+  Scenario: Included scenario
+    When Step without parameters
+
+  Scenario: Excluded scenario
+    When I cannot find method for step
@@ -0,0 +1,4 @@
+Feature: Cannot find method for step
+
+  Scenario: This scenario is not selected and never discovered
+    When I cannot find method for step
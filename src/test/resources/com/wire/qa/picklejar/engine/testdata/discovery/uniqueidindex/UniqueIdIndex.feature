@@ -0,0 +1,7 @@
+Feature: Unique Id Index
+
+  Scenario: Simple Scenario
+    When Step without parameters
+
+  Scenario: Other Scenario
+    When Step without parameters
@@ -0,0 +1,9 @@
+Feature: Feature1
+
+  Scenario: Scenario 1 of Feature1
+    When Step with injected helpers
+    Then Step with step scoped helper
+
+  Scenario: Scenario 2 of Feature1
+    When Step with injected helpers
+    Then Step with step scoped helper
@@ -0,0 +1,9 @@
+Feature: Feature2
+
+  Scenario: Scenario 1 of Feature2
+    When Step with injected helpers
+    Then Step with step scoped helper
+
+  Scenario: Scenario 2 of Feature2
+    When Step with injected helpers
+    Then Step with step scoped helper
@@ -0,0 +1,4 @@
+Feature: Wrong Scope
+
+  Scenario: Wrong Scope
+    When Step with wrongly scoped helper
@@ -0,0 +1,5 @@
+Feature: Feature1
+
+  Scenario: Scenario of Feature1
+    When Simple step
+    And Simple step
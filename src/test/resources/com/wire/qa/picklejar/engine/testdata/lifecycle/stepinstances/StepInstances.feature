@@ -0,0 +1,13 @@
+Feature: Step Instances
+
+  Scenario: Step Instances 1
+    When Step that sets instance variable
+    And Step that sets instance variable of fresh instance
+    Then Step that reads instance variable
+    And Step that expects fresh instance
+
+  Scenario: Step Instances 2
+    When Step that sets instance variable
+    And Step that sets instance variable of fresh instance
+    Then Step that reads instance variable
+    And Step that expects fresh instance
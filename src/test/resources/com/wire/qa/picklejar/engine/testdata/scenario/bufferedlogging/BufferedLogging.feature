@@ -0,0 +1,21 @@
+Feature: Buffered Logging
+
+  Scenario: Scenario 1
+    When Slow step
+    And Slow step
+    Then Slow step
+
+  Scenario: Scenario 2
+    When Slow step
+    And Slow step
+    Then Slow step
+
+  Scenario: Scenario 3
+    When Slow step
+    And Slow step
+    Then Slow step
+
+  Scenario: Scenario 4
+    When Slow step
+    And Slow step
+    Then Slow step